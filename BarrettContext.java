@@ -0,0 +1,457 @@
+import java.util.Arrays;
+
+/**
+ * Barrett reduction for a fixed modulus n.
+ * mu = floor(b^(2k) / n), with b = 2^32 and k the number of words in n, is found
+ * once here, and after that any number below b^(2k) (so any product of two numbers
+ * less than n) is reduced mod n with two half products and a few
+ * subtractions instead of a long division. Unlike MontgomeryContext the modulus
+ * can be even, and every result is a plain number mod n, so nothing has to be
+ * converted into or out of another form.
+ */
+public class BarrettContext
+{
+	// mask to read a word as an unsigned value
+	private static final long LONG_MASK = 0xFFFFFFFFL;
+
+	// the modulus
+	private final LargeInteger n;
+
+	// the modulus as exactly k words, least significant first
+	private final int[] mod;
+
+	// number of words in the modulus
+	private final int k;
+
+	// floor(b^(2k) / n) as exactly k + 1 words, n is at least b^(k - 1) so it only needs more when n is exactly that
+	private final int[] mu;
+
+	/**
+	 * Precompute mu for the modulus n
+	 * @param n a positive modulus, odd or even
+	 */
+	public BarrettContext(LargeInteger n)
+	{
+		if(n.isZero())
+		{
+			throw new ArithmeticException("Division by zero.");
+		}
+		if(n.isNegative())
+		{
+			throw new IllegalArgumentException("Barrett modulus must be positive.");
+		}
+		this.n = n;
+		this.k = n.magnitude().length;
+		this.mod = n.magnitude().clone();
+
+		// b^(2k) / n is the only real division this context ever does
+		int[] b2k = new int[2 * k + 1];
+		b2k[2 * k] = 1;
+		int[] quotient = new LargeInteger(b2k, false).division(n).magnitude();
+		if(quotient.length > k + 1)
+		{
+			// n is b^(k - 1) and mu is b^(k + 1), b^(k + 1) - 1 is used instead and only costs one more subtraction
+			quotient = new int[k + 1];
+			Arrays.fill(quotient, -1);
+		}
+		this.mu = Arrays.copyOf(quotient, k + 1);
+	}
+
+	/**
+	 * Return the modulus of this context
+	 * @return n
+	 */
+	public LargeInteger getModulus()
+	{
+		return n;
+	}
+
+	/**
+	 * Reduce x mod n
+	 * @param x any LargeInteger, anything negative or with more than 2k words falls back to a division
+	 * @return x mod n, between 0 and n - 1
+	 */
+	public LargeInteger reduce(LargeInteger x)
+	{
+		int[] m = x.magnitude();
+		// already in range, nothing to do
+		if(!x.isNegative() && x.lessThan(n))
+		{
+			return x;
+		}
+		// out of the range Barrett works in, so divide like modulus does and move a negative remainder back into range
+		if(x.isNegative() || m.length > 2 * k)
+		{
+			LargeInteger remainder = x.modulus(n);
+			return remainder.isNegative() ? remainder.add(n) : remainder;
+		}
+		if(Metrics.ENABLED)
+		{
+			Metrics.REDUCTIONS.increment();
+		}
+		int[] result = new int[k];
+		reduce(Arrays.copyOf(m, 2 * k), new int[2 * k + 2], result);
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Multiply two numbers mod n
+	 * @param a first factor, reduced mod n first if needed
+	 * @param b second factor, reduced mod n first if needed
+	 * @return a * b mod n
+	 */
+	public LargeInteger modMul(LargeInteger a, LargeInteger b)
+	{
+		if(Metrics.ENABLED)
+		{
+			Metrics.MULTIPLIES.increment();
+			Metrics.REDUCTIONS.increment();
+		}
+		int[] result = new int[k];
+		mul(toWords(reduce(a)), toWords(reduce(b)), new int[2 * k], new int[2 * k + 2], result);
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Square a number mod n
+	 * @param a the number to square, reduced mod n first if needed
+	 * @return a * a mod n
+	 */
+	public LargeInteger modSquare(LargeInteger a)
+	{
+		if(Metrics.ENABLED)
+		{
+			Metrics.SQUARINGS.increment();
+			Metrics.REDUCTIONS.increment();
+		}
+		int[] result = new int[k];
+		square(toWords(reduce(a)), new int[2 * k], new int[2 * k + 2], result);
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Compute base^exponent mod n without dividing inside the loop
+	 * @param base the number to raise to the power, reduced mod n first if needed
+	 * @param exponent a non-negative exponent
+	 * @return base^exponent mod n
+	 */
+	public LargeInteger modularExp(LargeInteger base, LargeInteger exponent)
+	{
+		return modularExp(base, new ExponentWindows(exponent));
+	}
+
+	/**
+	 * Compute base^exponent mod n without dividing inside the loop, with the exponent already recoded
+	 * @param base the number to raise to the power, reduced mod n first if needed
+	 * @param exponent the windows of a non-negative exponent
+	 * @return base^exponent mod n
+	 */
+	public LargeInteger modularExp(LargeInteger base, ExponentWindows exponent)
+	{
+		// with metrics on, count the work done and the bytes allocated by this call
+		long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+		int squarings = 0;
+		int multiplies = 0;
+
+		// scratch words for the full products and for reducing them, shared by every step below so the loop allocates nothing
+		int[] x = new int[2 * k];
+		int[] t = new int[2 * k + 2];
+
+		// odd powers base^1, base^3, ... mod n, as many as the windows use, built once for this call
+		int[][] powers = new int[Math.max(exponent.tableSize(), 1)][];
+		powers[0] = toWords(reduce(base));
+		if(powers.length > 1)
+		{
+			int[] square = new int[k];
+			square(powers[0], x, t, square);
+			squarings++;
+			for(int i = 1; i < powers.length; i++)
+			{
+				powers[i] = new int[k];
+				mul(powers[i - 1], square, x, t, powers[i]);
+				multiplies++;
+			}
+		}
+
+		// result starts as the first window's power, or 1 mod n (0 when n is 1) for an exponent of 0
+		// every product is written straight back over it
+		int[] result;
+		if(exponent.count() == 0)
+		{
+			result = new int[k];
+			result[0] = 1;
+			if(!lessThanMod(result, k))
+			{
+				result[0] = 0;
+			}
+		}
+		else
+		{
+			result = powers[exponent.value(0) >>> 1].clone();
+		}
+
+		// for each window after that, shift the result up past it, then multiply in the odd power it ends with
+		for(int w = 1; w < exponent.count(); w++)
+		{
+			for(int j = exponent.squarings(w); j > 0; j--)
+			{
+				square(result, x, t, result);
+			}
+			squarings += exponent.squarings(w);
+			mul(result, powers[exponent.value(w) >>> 1], x, t, result);
+			multiplies++;
+		}
+		// and the 0 bits below the last window are just squarings
+		for(int j = exponent.trailingSquarings(); j > 0; j--)
+		{
+			square(result, x, t, result);
+		}
+		squarings += exponent.trailingSquarings();
+
+		// every product and square includes a reduction
+		if(Metrics.ENABLED)
+		{
+			Metrics.recordModularExp(Metrics.allocatedBytes() - allocated, multiplies, squarings, multiplies + squarings);
+		}
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Compute bases[0]^exponents[0] * bases[1]^exponents[1] * ... mod n with one shared run of squarings
+	 * @param bases the numbers to raise to the powers, each reduced mod n first if needed
+	 * @param exponents one non-negative exponent for each base
+	 * @return the product of every bases[i]^exponents[i] mod n
+	 */
+	public LargeInteger multiModExp(LargeInteger[] bases, LargeInteger[] exponents)
+	{
+		ExponentWindows[] windows = new ExponentWindows[exponents.length];
+		for(int i = 0; i < exponents.length; i++)
+		{
+			windows[i] = new ExponentWindows(exponents[i]);
+		}
+		return multiModExp(bases, windows);
+	}
+
+	/**
+	 * Compute bases[0]^exponents[0] * bases[1]^exponents[1] * ... mod n with one shared run of squarings, with the exponents already recoded
+	 * The windows of every exponent are walked together from the top bit down, the same as in MontgomeryContext
+	 * @param bases the numbers to raise to the powers, each reduced mod n first if needed
+	 * @param exponents the windows of one non-negative exponent for each base
+	 * @return the product of every bases[i]^exponents[i] mod n
+	 */
+	public LargeInteger multiModExp(LargeInteger[] bases, ExponentWindows[] exponents)
+	{
+		if(bases.length != exponents.length)
+		{
+			throw new IllegalArgumentException("Need one exponent for each base.");
+		}
+		// with metrics on, count the work done and the bytes allocated by this call
+		long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+		int squarings = 0;
+		int multiplies = 0;
+
+		// scratch words for the full products and for reducing them, shared by every step below so the loop allocates nothing
+		int[] x = new int[2 * k];
+		int[] t = new int[2 * k + 2];
+
+		// for each base, its odd powers mod n, and the next window to multiply in and the bit it ends at
+		int terms = bases.length;
+		int[][][] powers = new int[terms][][];
+		int[] next = new int[terms];
+		int[] low = new int[terms];
+		int top = -1;
+		for(int i = 0; i < terms; i++)
+		{
+			ExponentWindows e = exponents[i];
+			// an exponent of 0 has no windows, so its base is never needed
+			if(e.count() == 0)
+			{
+				low[i] = -1;
+				continue;
+			}
+			powers[i] = new int[e.tableSize()][];
+			powers[i][0] = toWords(reduce(bases[i]));
+			if(powers[i].length > 1)
+			{
+				int[] square = new int[k];
+				square(powers[i][0], x, t, square);
+				squarings++;
+				for(int j = 1; j < powers[i].length; j++)
+				{
+					powers[i][j] = new int[k];
+					mul(powers[i][j - 1], square, x, t, powers[i][j]);
+					multiplies++;
+				}
+			}
+			low[i] = e.bitLength() - e.squarings(0);
+			top = Math.max(top, e.bitLength() - 1);
+		}
+
+		// 1 mod n (0 when n is 1) until the first window is reached, then every product is written straight back over it
+		int[] result = new int[k];
+		result[0] = 1;
+		if(!lessThanMod(result, k))
+		{
+			result[0] = 0;
+		}
+		boolean started = false;
+
+		// one bit at a time from the top bit of the longest exponent: shift the result up past the bit,
+		// then multiply in the odd power of each window that ends at it
+		for(int bit = top; bit >= 0; bit--)
+		{
+			if(started)
+			{
+				square(result, x, t, result);
+				squarings++;
+			}
+			for(int i = 0; i < terms; i++)
+			{
+				if(low[i] != bit)
+				{
+					continue;
+				}
+				ExponentWindows e = exponents[i];
+				int[] power = powers[i][e.value(next[i]) >>> 1];
+				// the first window needs no product, the result just starts as its power
+				if(started)
+				{
+					mul(result, power, x, t, result);
+					multiplies++;
+				}
+				else
+				{
+					System.arraycopy(power, 0, result, 0, k);
+					started = true;
+				}
+				next[i]++;
+				low[i] = next[i] < e.count() ? low[i] - e.squarings(next[i]) : -1;
+			}
+		}
+
+		// every product and square includes a reduction
+		if(Metrics.ENABLED)
+		{
+			Metrics.recordModularExp(Metrics.allocatedBytes() - allocated, multiplies, squarings, multiplies + squarings);
+		}
+		return toLargeInteger(result);
+	}
+
+	// the magnitude of x, which must be less than n, as exactly k words
+	private int[] toWords(LargeInteger x)
+	{
+		int[] words = new int[k];
+		int[] m = x.magnitude();
+		System.arraycopy(m, 0, words, 0, Math.min(m.length, k));
+		return words;
+	}
+
+	// wrap k words up as a positive LargeInteger
+	private LargeInteger toLargeInteger(int[] words)
+	{
+		return new LargeInteger(words, false);
+	}
+
+	// a * b mod n of two k word numbers less than n, written into result
+	// x is 2k words and t is 2k + 2 words of scratch, and result can be a or b
+	private void mul(int[] a, int[] b, int[] x, int[] t, int[] result)
+	{
+		LargeInteger.multiplyWords(a, k, b, k, x);
+		reduce(x, t, result);
+	}
+
+	// a * a mod n of a k word number less than n, written into result
+	// x is 2k words and t is 2k + 2 words of scratch, and result can be a
+	private void square(int[] a, int[] x, int[] t, int[] result)
+	{
+		LargeInteger.squareWords(a, k, x);
+		reduce(x, t, result);
+	}
+
+	// x mod n of a 2k word number x, written into the k words of result, with t as 2k + 2 words of scratch
+	// q = floor(floor(x / b^(k - 1)) * mu / b^(k + 1)) is at most 4 less than floor(x / n), so x - q * n
+	// is less than 5n, which fits in k + 1 words, and only needs its low k + 1 words worked out
+	private void reduce(int[] x, int[] t, int[] result)
+	{
+		// local copies, so the loops below do not reload the fields
+		int k = this.k;
+		int[] mod = this.mod;
+		int[] mu = this.mu;
+
+		// t = floor(x / b^(k - 1)) * mu, leaving out every word product that lands below word k - 1
+		// those can only carry 1 into word k + 1, which is the one that is 1 more subtraction at the end
+		Arrays.fill(t, k - 1, 2 * k + 2, 0);
+		for(int i = 0; i <= k; i++)
+		{
+			long qi = x[k - 1 + i] & LONG_MASK;
+			long carry = 0;
+			for(int j = Math.max(k - 1 - i, 0); j <= k; j++)
+			{
+				carry += qi * (mu[j] & LONG_MASK) + (t[i + j] & LONG_MASK);
+				t[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+			t[i + k + 1] = (int) carry;
+		}
+
+		// q is now in words k + 1 to 2k + 1 of t, put the low k + 1 words of q * n below it
+		// every word product that lands above word k is dropped, so the top word of each row is never carried into
+		Arrays.fill(t, 0, k + 1, 0);
+		for(int i = 0; i <= k; i++)
+		{
+			long qi = t[k + 1 + i] & LONG_MASK;
+			long carry = 0;
+			int end = Math.min(k, k + 1 - i);
+			for(int j = 0; j < end; j++)
+			{
+				carry += qi * (mod[j] & LONG_MASK) + (t[i + j] & LONG_MASK);
+				t[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+			if(i + end <= k)
+			{
+				t[i + end] += (int) carry;
+			}
+		}
+
+		// r = x - q * n mod b^(k + 1), the real difference is positive and fits, so any borrow off the top is dropped
+		long borrow = 0;
+		for(int j = 0; j <= k; j++)
+		{
+			borrow += (x[j] & LONG_MASK) - (t[j] & LONG_MASK);
+			t[j] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		// take n away until r is less than n, which is at most 4 times
+		while(!lessThanMod(t, k + 1))
+		{
+			borrow = 0;
+			for(int j = 0; j < k; j++)
+			{
+				borrow += (t[j] & LONG_MASK) - (mod[j] & LONG_MASK);
+				t[j] = (int) borrow;
+				borrow >>= 32;
+			}
+			t[k] += (int) borrow;
+		}
+		System.arraycopy(t, 0, result, 0, k);
+	}
+
+	// true if the number in the first length words of x, with length k or k + 1, is less than n
+	private boolean lessThanMod(int[] x, int length)
+	{
+		if(length > k && x[k] != 0)
+		{
+			return false;
+		}
+		for(int i = k - 1; i >= 0; i--)
+		{
+			if(x[i] != mod[i])
+			{
+				return (x[i] & LONG_MASK) < (mod[i] & LONG_MASK);
+			}
+		}
+		return false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+/**
+ * An exponent recoded once into the windows of sliding window exponentiation.
+ * Finding the windows only depends on the exponent, so a key that is used over
+ * and over keeps its exponents recoded here, and each exponentiation just walks
+ * the windows in order: square the result some number of times, then multiply
+ * in the odd power of the base that the window stands for.
+ */
+public class ExponentWindows
+{
+	// odd value of each window, most significant window first
+	private final int[] values;
+
+	// squarings before each window's multiply, for the bits it covers and the 0 bits just above it
+	// the first is just its width, which modularExp never squares for but multiModExp uses to find where the window ends
+	private final int[] squarings;
+
+	// squarings after the last window, for the 0 bits at the bottom of the exponent
+	private final int trailingSquarings;
+
+	// the largest value of any window, so only the odd powers up to it need to be built
+	private final int maxValue;
+
+	// number of bits in the exponent
+	private final int bits;
+
+	/**
+	 * Recode an exponent
+	 * @param exponent a non-negative exponent
+	 */
+	public ExponentWindows(LargeInteger exponent)
+	{
+		if(exponent.isNegative())
+		{
+			throw new IllegalArgumentException("Exponent cannot be negative.");
+		}
+		int[] e = exponent.magnitude();
+		int bits = exponent.bitLength();
+		int width = LargeInteger.exponentWindow(bits);
+
+		// at most one window for every bit, trimmed once the real number is known
+		int[] values = new int[bits];
+		int[] squarings = new int[bits];
+		int count = 0;
+		int zeros = 0;
+		int max = 0;
+
+		// slide over the exponent from the most significant bit down
+		int i = bits - 1;
+		while(i >= 0)
+		{
+			// a 0 bit on its own is just a squaring
+			if(!LargeInteger.testBit(e, i))
+			{
+				zeros++;
+				i--;
+				continue;
+			}
+
+			// take the longest window (at most width bits) that starts at bit i and ends in a 1 bit
+			int low = Math.max(i - width + 1, 0);
+			while(!LargeInteger.testBit(e, low))
+			{
+				low++;
+			}
+			int value = 0;
+			for(int j = i; j >= low; j--)
+			{
+				value = (value << 1) | (LargeInteger.testBit(e, j) ? 1 : 0);
+			}
+
+			// the result is shifted up past the 0 bits and the window, then the window's value is multiplied in
+			values[count] = value;
+			squarings[count] = zeros + (i - low + 1);
+			count++;
+			zeros = 0;
+			max = Math.max(max, value);
+			i = low - 1;
+		}
+
+		this.values = Arrays.copyOf(values, count);
+		this.squarings = Arrays.copyOf(squarings, count);
+		this.trailingSquarings = zeros;
+		this.maxValue = max;
+		this.bits = bits;
+	}
+
+	/**
+	 * Number of bits in the exponent, 0 for an exponent of 0
+	 * @return the bit length, so window 0 ends at bit bitLength() - squarings(0)
+	 */
+	public int bitLength()
+	{
+		return bits;
+	}
+
+	/**
+	 * Number of windows, 0 for an exponent of 0
+	 * @return the number of multiplies by a power of the base
+	 */
+	public int count()
+	{
+		return values.length;
+	}
+
+	/**
+	 * Odd value of a window
+	 * @param i which window, 0 is the most significant
+	 * @return the value, the power of the base to multiply in
+	 */
+	public int value(int i)
+	{
+		return values[i];
+	}
+
+	/**
+	 * Squarings to do before multiplying in a window
+	 * @param i which window, for window 0 this is only its width since nothing is squared before it
+	 * @return the number of squarings
+	 */
+	public int squarings(int i)
+	{
+		return squarings[i];
+	}
+
+	/**
+	 * Squarings to do after the last window
+	 * @return the number of 0 bits below the last window
+	 */
+	public int trailingSquarings()
+	{
+		return trailingSquarings;
+	}
+
+	/**
+	 * Number of odd powers base^1, base^3, ... that the windows use
+	 * @return the size of the table of powers to build, 0 for an exponent of 0
+	 */
+	public int tableSize()
+	{
+		return (maxValue + 1) >>> 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keys read from privkey.rsa and pubkey.rsa files, kept ready to use.
+ * A key is looked up by the path of its file, and the file is only read again when
+ * its size or modification time has changed. A cached key still has its Montgomery
+ * and Barrett contexts and its recoded exponents, so using it again skips all of
+ * that set up as well as the parsing. Once more than capacity keys are cached, the
+ * one used longest ago is dropped. Safe to use from any number of threads.
+ */
+public class KeyCache
+{
+    // number of keys kept when no capacity is given
+    public static final int DEFAULT_CAPACITY = 16;
+
+    // most keys kept at once
+    private final int capacity;
+
+    // keys by absolute path, in access order so the first one is the one used longest ago
+    private final LinkedHashMap<Path, CachedKey> entries;
+
+    public KeyCache()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyCache(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("A key cache must hold at least one key.");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Path, CachedKey>(16, 0.75f, true)
+        {
+            // drop the least recently used key once there are too many
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CachedKey> eldest)
+            {
+                return size() > KeyCache.this.capacity;
+            }
+        };
+    }
+
+    // the private key in filename, read again only if the file has changed since it was last read
+    public RsaPrivateKey privateKey(String filename) throws IOException
+    {
+        return get(filename, RsaPrivateKey.class);
+    }
+
+    // the public key in filename, read again only if the file has changed since it was last read
+    public RsaPublicKey publicKey(String filename) throws IOException
+    {
+        return get(filename, RsaPublicKey.class);
+    }
+
+    // number of keys cached
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    // forget every key, so each one is read again the next time it is asked for
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    // the key of the given type in filename, from the cache if the file has the same size and modification time
+    private <T> T get(String filename, Class<T> type) throws IOException
+    {
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        FileTime modified = attributes.lastModifiedTime();
+
+        synchronized(this)
+        {
+            CachedKey entry = entries.get(path);
+            if(entry != null && entry.size == size && entry.modified.equals(modified) && type.isInstance(entry.key))
+            {
+                return type.cast(entry.key);
+            }
+        }
+
+        // read it outside the lock, so a slow read does not hold up threads after other keys
+        // the file is checked before it is read, so if it changes in between the next check reads it again
+        LargeInteger[] values = LargeIntegerFile.read(path.toString());
+        Object key = type == RsaPrivateKey.class ? toPrivateKey(values, filename) : toPublicKey(values, filename);
+        synchronized(this)
+        {
+            entries.put(path, new CachedKey(size, modified, key));
+        }
+        return type.cast(key);
+    }
+
+    // d and n, and p, q, dP, dQ and qInv if they are there
+    private static RsaPrivateKey toPrivateKey(LargeInteger[] values, String filename) throws IOException
+    {
+        // the file holds d, n, then p, q, dP, dQ and qInv so signing can use the chinese remainder theorem
+        if(values.length >= 7)
+        {
+            return new RsaPrivateKey(values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+        }
+        // older key files only have d and n
+        if(values.length >= 2)
+        {
+            return new RsaPrivateKey(values[0], values[1]);
+        }
+        throw new IOException(filename + " does not hold a private key.");
+    }
+
+    // e, then n
+    private static RsaPublicKey toPublicKey(LargeInteger[] values, String filename) throws IOException
+    {
+        if(values.length < 2)
+        {
+            throw new IOException(filename + " does not hold a public key.");
+        }
+        return new RsaPublicKey(values[0], values[1]);
+    }
+
+    // a key and the size and modification time its file had when it was read
+    private static class CachedKey
+    {
+        final long size;
+        final FileTime modified;
+        final Object key;
+
+        CachedKey(long size, FileTime modified, Object key)
+        {
+            this.size = size;
+            this.modified = modified;
+            this.key = key;
+        }
+    }
+}
\ No newline at end of file
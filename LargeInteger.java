@@ -1,911 +1,1954 @@
-import java.util.Random;
-import java.math.BigInteger;
-
-public class LargeInteger {
-	
-	private final byte[] ONE = {(byte) 1};
-
-	private byte[] val;
-
-	// constructor if the large integer is created without any parameters, used in methods
-	public LargeInteger()
-	{
-		// let val be a new byte array of size 1
-		val = new byte[1];
-		// add 00000000 as the only byte in the integer
-		val[0] = 0x00;
-	}
-
-	/**
-	 * Construct the LargeInteger from a given byte array
-	 * @param b the byte array that this LargeInteger should represent
-	 */
-	public LargeInteger(byte[] b) {
-		val = b;
-	}
-
-	// constructor when passed in just a character string of bits
-	public LargeInteger(String bitString)
-	{
-		// the val array that back the large int is the length of the string of bits divided by 8 (i byte = 8 bits)
-		val = new byte[bitString.length()/8];
-		// index is in bytes
-		int index = 0;
-		// for each bit from the most significant to least, and increasing by 8 (so a single byte is looked at at a time)
-		for(int i = 0; i < bitString.length(); i+=8)
-		{
-			// byte string is an 8 character substring of bit string
-			String byteString = bitString.substring(i, i+8);
-			// val at index index is the binary parsed version of byte string
-			val[index] = (byte)Integer.parseInt(byteString, 2);
-			// incriment the byte index
-			index++;
-		}
-	}
-
-	/**
-	 * Construct the LargeInteger by generatin a random n-bit number that is
-	 * probably prime (2^-100 chance of being composite).
-	 * @param n the bitlength of the requested integer
-	 * @param rnd instance of java.util.Random to use in prime generation
-	 */
-	public LargeInteger(int n, Random rnd) {
-		val = BigInteger.probablePrime(n, rnd).toByteArray();
-	}
-	
-	/**
-	 * Return this LargeInteger's val
-	 * @return val
-	 */
-	public byte[] getVal() {
-		return val;
-	}
-
-	/**
-	 * Return the number of bytes in val
-	 * @return length of the val byte array
-	 */
-	public int length() {
-		return val.length;
-	}
-
-	// add leading 0s to the front of the integer so comparisons can easily be done
-	public void pad(int numBytes)
-	{
-		// newv is the array that will be padded, it is the original length of the array + the number of bytes added for padding
-		byte[] newv = new byte[val.length + numBytes];
-		// add each index of the original integer to the new integer, the remaining will be bytes with value 0
-		for (int i = 0; i < val.length; i++) {
-			// add the old value to the index that is its original place + the number of bytes added for padding
-			newv[i + numBytes] = val[i];
-		}
-		// set val to be the new padded array
-		val = newv;
-	}
-
-	/** 
-	 * Add a new byte as the most significant in this
-	 * @param extension the byte to place as most significant
-	 */
-	public void extend(byte extension) {
-		byte[] newv = new byte[val.length + 1];
-		newv[0] = extension;
-		for (int i = 0; i < val.length; i++) {
-			newv[i + 1] = val[i];
-		}
-		val = newv;
-	}
-
-	/**
-	 * If this is negative, most significant bit will be 1 meaning most 
-	 * significant byte will be a negative signed number
-	 * @return true if this is negative, false if positive
-	 */
-	public boolean isNegative() {
-		return (val[0] < 0);
-	}
-
-	/**
-	 * Computes the sum of this and other
-	 * @param other the other LargeInteger to sum with this
-	 */
-	public LargeInteger add(LargeInteger other) {
-		byte[] a, b;
-		// If operands are of different sizes, put larger first ...
-		if (val.length < other.length()) {
-			a = other.getVal();
-			b = val;
-		}
-		else {
-			a = val;
-			b = other.getVal();
-		}
-
-		// ... and normalize size for convenience
-		if (b.length < a.length) {
-			int diff = a.length - b.length;
-
-			byte pad = (byte) 0;
-			if (b[0] < 0) {
-				pad = (byte) 0xFF;
-			}
-
-			byte[] newb = new byte[a.length];
-			for (int i = 0; i < diff; i++) {
-				newb[i] = pad;
-			}
-
-			for (int i = 0; i < b.length; i++) {
-				newb[i + diff] = b[i];
-			}
-
-			b = newb;
-		}
-
-		// Actually compute the add
-		int carry = 0;
-		byte[] res = new byte[a.length];
-		for (int i = a.length - 1; i >= 0; i--) {
-			// Be sure to bitmask so that cast of negative bytes does not
-			//  introduce spurious 1 bits into result of cast
-			carry = ((int) a[i] & 0xFF) + ((int) b[i] & 0xFF) + carry;
-
-			// Assign to next byte
-			res[i] = (byte) (carry & 0xFF);
-
-			// Carry remainder over to next byte (always want to shift in 0s)
-			carry = carry >>> 8;
-		}
-
-		LargeInteger res_li = new LargeInteger(res);
-	
-		// If both operands are positive, magnitude could increase as a result
-		//  of addition
-		if (!this.isNegative() && !other.isNegative()) {
-			// If we have either a leftover carry value or we used the last
-			//  bit in the most significant byte, we need to extend the result
-			if (res_li.isNegative()) {
-				res_li.extend((byte) carry);
-			}
-		}
-		// Magnitude could also increase if both operands are negative
-		else if (this.isNegative() && other.isNegative()) {
-			if (!res_li.isNegative()) {
-				res_li.extend((byte) 0xFF);
-			}
-		}
-
-		// Note that result will always be the same size as biggest input
-		//  (e.g., -127 + 128 will use 2 bytes to store the result value 1)
-		return res_li;
-	}
-
-	/**
-	 * Negate val using two's complement representation
-	 * @return negation of this
-	 */
-	public LargeInteger negate() {
-		byte[] neg = new byte[val.length];
-		int offset = 0;
-
-		// Check to ensure we can represent negation in same length
-		//  (e.g., -128 can be represented in 8 bits using two's 
-		//  complement, +128 requires 9)
-		if (val[0] == (byte) 0x80) { // 0x80 is 10000000
-			boolean needs_ex = true;
-			for (int i = 1; i < val.length; i++) {
-				if (val[i] != (byte) 0) {
-					needs_ex = false;
-					break;
-				}
-			}
-			// if first byte is 0x80 and all others are 0, must extend
-			if (needs_ex) {
-				neg = new byte[val.length + 1];
-				neg[0] = (byte) 0;
-				offset = 1;
-			}
-		}
-
-		// flip all bits
-		for (int i  = 0; i < val.length; i++) {
-			neg[i + offset] = (byte) ~val[i];
-		}
-
-		LargeInteger neg_li = new LargeInteger(neg);
-	
-		// add 1 to complete two's complement negation
-		return neg_li.add(new LargeInteger(ONE));
-	}
-
-	/**
-	 * Implement subtraction as simply negation and addition
-	 * @param other LargeInteger to subtract from this
-	 * @return difference of this and other
-	 */
-	public LargeInteger subtract(LargeInteger other) {
-		return this.add(other.negate());
-	}
-
-	/**
-	 * Compute the product of this and other
-	 * @param other LargeInteger to multiply by this
-	 * @return product of this and other
-	 */
-	public LargeInteger multiply(LargeInteger b) {
-		// clone the integer used to call this so that the original does not get changed
-		LargeInteger a = this.clone();
-		// set be to be its clone so that the original does not get changed
-		b = b.clone();
-		
-		boolean negativeResult = finalNegative(a.isNegative(), b.isNegative());
-
-		if(a.isNegative())
-		{
-			a = a.negate();
-		}
-		if(b.isNegative())
-		{
-			b = b.negate();
-		}
-
-		// create a new integer that will be the result of the multiplication
-		LargeInteger result = new LargeInteger();
-
-		// while a is not zero
-		while(!a.isZero())
-		{
-			// is the least significant bit of a is 1, then shouldAdd will be true, otherwise it will be false
-			boolean shouldAdd = a.getLSB();
-
-			// if a number should be added to the result
-			if(shouldAdd)
-			{
-				// result is equal to itself + b
-				result = result.add(b);
-			}
-
-			// right shift a
-			a.shiftRightLogical();
-			// left shift b
-			b.shiftLeftLogical();
-		}
-
-		if(negativeResult)
-		{
-			result = result.negate();
-		}
-
-		// return the resulting value from the multiplication
-		return result;
-	}
-	
-	// struct that will hold the large integers that are used in XGCD
-	private class  XGCD_Struct
-	{
-		// a is the large int calling the method
-		// b is the large int being passed into method
-		// d is the gcd
-		// s and t are the extended multipliers
-		LargeInteger a, b, d, s, t;
-	}
-
-	/**
-	 * Run the extended Euclidean algorithm on this and other
-	 * @param other another LargeInteger
-	 * @return an array structured as follows:
-	 *   0:  the GCD of this and other
-	 *   1:  a valid x value
-	 *   2:  a valid y value
-	 * such that this * x + other * y == GCD in index 0
-	 */
-	public LargeInteger[] XGCD(LargeInteger other) {
-		// result will hold the struct of the xgcd
-		XGCD_Struct result = new XGCD_Struct();
-		// set a to be what called the method
-		result.a = this;
-		// bset b to be what is passed into the method
-		result.b = other;
-		// call the helper method that will recursively solve the problem
-		helperXGCD(result);
-		// finalResult is the large int array that will be returned with the answers
-		LargeInteger[] finalResult = new LargeInteger[3];
-		// gcd is put in index 0
-		finalResult[0] = result.d;
-		// first multiplier is put in index 1
-		finalResult[1] = result.s;
-		// second multiplier is put in index 2
-		finalResult[2] = result.t;
-
-		// return the finalResult array containing the answer
-		return finalResult;
-	}
-
-	// helper method for xgcd that will recursively solve the problem
-	private void helperXGCD(XGCD_Struct struct)
-	{
-		// Base Case for the recursive call, if b is 0
-		if(struct.b.isZero())
-		{
-			// create a new byte array only holding byte 00000001
-			byte[] one = {(byte) 0x01};
-			// set s equal to 00000001
-			struct.s = new LargeInteger(one);
-			// construct t with the default constructor that creates t as 00000000
-			struct.t = new LargeInteger();
-			// d is a, because at this point a must be the answer to gcd
-			struct.d = struct.a;
-			return;
-		}
-
-		// mod is a%b
-		LargeInteger mod = struct.a.modulus(struct.b);
-		// div is a/b
-		LargeInteger div = struct.a.division(struct.b);
-
-		// next will be used in the next call of helperXGCD
-		XGCD_Struct next = new XGCD_Struct();
-		// in the next call, a is the previous call's b
-		next.a = struct.b;
-		// in the next call, b is the previous call's a%b
-		next.b = mod;
-
-		// do the recursive call
-		helperXGCD(next);
-
-		// s = next call's t
-		struct.s = next.t;
-		// t = next call's s-(a/b)*next's t
-		struct.t = next.s.subtract(div.multiply(next.t));
-		// d = next's d
-		struct.d = next.d;
-	}
-
-	 /**
-	  * Compute the result of raising this to the power of y mod n
-	  * @param b exponent to raise this to
-	  * @param c modulus value to use
-	  * @return this^b mod c
-	  */
-	public LargeInteger modularExp(LargeInteger b, LargeInteger c) {
-		if(this.isNegative() || b.isNegative() || c.isNegative())
-		{
-			System.out.println("Number cannot be negative, in modular exponentiation.");
-			return null;
-		}
-		
-		//result = (a^b) mod c
-		// a is what called this method
-		LargeInteger a = this;
-		// clone b so the large int does not change
-		b = b.clone();
-		// byte array that will be used in subtraction
-		byte[] one = {(byte) 0x01};
-		// result that will be returned
-		LargeInteger result = new LargeInteger(one);
-		char[] bitString = b.toStringWithoutSpace().toCharArray();
-
-		for(char bit_ : bitString)
-		// while b is not zero
-		{
-			int bit = bit_ == '1'? 1 :  0;
-			result = result.multiply(result);
-			if(bit == 1)
-			{
-				result = result.multiply(a);
-			}
-			result = result.modulus(c);
-		}
-		
-		return result;
-	}
-
-	// trim the unnecessary leading 00000000 or 11111111, depending on if the large int is pos or neg
-	public void trim()
-	{
-		// start the numBytesToTrim counter of number of bytes to tirm at 0
-		int numByteToTrim = 0;
-		// if the large int that called this method is positive
-		if(!this.isNegative())
-		{
-			// while the value of the byte array at index numBytesToTrim is 00000000
-			while(numByteToTrim < val.length && val[numByteToTrim] == 0)
-			{
-				// incriment numBytesToTrim
-				numByteToTrim++;
-			}
-		}
-		// else the large int that called with method is negative
-		else
-		{
-			// while the value of the byte array at index numBytesToTrim is 11111111
-			while(numByteToTrim < val.length && val[numByteToTrim] == (byte) 0xFF)
-			{
-				// incriment numBytesToTrim
-				numByteToTrim++;
-			}
-		}
-
-		// decriment numBytesToTrim by 1, because this will allow us to not have to 
-		// not have to make an additional check as to whether the sign of the large int has changed
-		numByteToTrim--;
-
-		// if there is a number of bytes that need trimmed
-		if(numByteToTrim > 0)
-		{
-			// the new length of the byte array will be either the current length-numBytesToTrim, or it will be 1, whichever is greater
-			int newLength = Math.max((length() - numByteToTrim), 1);
-			// the offset for what is being trimmed is the current length - NewLength
-			int offset = length() - newLength;
-			// create a byte array that is the size of the newLength
-			byte[] newVal = new byte[newLength];
-
-			// from the first index until the end of the newVal array
-			for(int i = 0; i < newLength; i++)
-			{
-				// newVal at that index = the old value at that index + the offset
-				newVal[i] = val[i + offset];
-			}
-			
-			// set val to be the newVal
-			val = newVal;
-		}
-	}
-
-	// create a new integer that has the same value as the one that called this method
-	public LargeInteger clone()
-	{
-		// create a new byte array for the clone that is the same length as what is being cloned
-		byte[] clone = new byte[val.length];
-		// for every index in the original array
-		for(int i = 0; i < val.length; i++)
-		{
-			// clone of that index is equal to val of that index
-			clone[i] = val[i];
-		}
-		// return a new integer that uses clone as its byte array
-		return new LargeInteger(clone);
-	}
-
-	// format the byte array to be an easily readable printout
-	private String byteToString(byte num)
-	{
-		return String.format("%8s", Integer.toBinaryString(num & 0xFF)).replace(' ', '0');
-	}
-
-	// use the byteToString method to print out an easily read version of the large integer as a sequence of bytes
-	public String toString()
-	{
-		String print = "";
-		for(int i = 0; i < val.length; i++)
-		{
-			print += byteToString(val[i]);
-			print += " ";
-		}
-		return print;
-	}
-
-	public String toStringWithoutSpace()
-	{
-		String print = "";
-		for(int i = 0; i < val.length; i++)
-		{
-			print += byteToString(val[i]);
-		}
-		return print;
-	}
-
-	// shift the bytes to the left by one bit
-	public void shiftLeftLogical()
-	{
-		// if the most significant bit of the current byte is 1, then this will be true, so that a 1 is shifted in easily
-		boolean shiftInOne = false;
-		// true if the value started out negative, false otherwise
-		boolean isNegativeBefore = isNegative();
-
-		// for every index in the val array, starting from the last index and moving to the first index
-		for(int i = val.length - 1; i >= 0; i--)
-		{
-			// temp is true if the current byte would be negativeon its own, that is, that its most significant bit is 1
-			boolean temp = val[i] < 0;
-			// shift the current index of val to the left by one bit
-			val[i] = (byte) (val[i] << 1);
-			// if the most significant bit of the previous index was 1
-			if(shiftInOne)
-			{
-				// the current val should have shifted in a 1 instead of a 0, add 1 to as the new least significant bit in the byte
-				val[i] = (byte) ((val[i] & 0xFF) + 1);
-			}
-			// the next iteration's shiftInOne is the current iteration's temp
-			shiftInOne = temp;
-		}
-
-		// if after the for loop breaks, and there should still be a 1 shifted in
-		if(shiftInOne)
-		{
-			// extend the current integer by one byte containing 00000001
-			extend((byte) 0x01);
-		}
-		// if the integer changed from positive to negative
-		if(!isNegativeBefore && isNegative())
-		{
-			// extend the current integer by one byte containing 00000000
-			extend((byte) 0x00);
-		}
-	}
-
-	// shift the bytes to the left by one bit
-	public void shiftLeftLogicalNoExtend()
-		{
-		// if the most significant bit of the current byte is 1, then this will be true, so that a 1 is shifted in easily
-		boolean shiftInOne = false;
-	
-		// for every index in the val array, starting from the last index and moving to the first index
-		for(int i = val.length - 1; i >= 0; i--)
-		{
-			// temp is true if the current byte would be negativeon its own, that is, that its most significant bit is 1
-			boolean temp = val[i] < 0;
-			// shift the current index of val to the left by one bit
-			val[i] = (byte) (val[i] << 1);
-			// if the most significant bit of the previous index was 1
-			if(shiftInOne)
-			{
-				// the current val should have shifted in a 1 instead of a 0, add 1 to as the new least significant bit in the byte
-				val[i] = (byte) ((val[i] & 0xFF) + 1);
-			}
-			// the next iteration's shiftInOne is the current iteration's temp
-			shiftInOne = temp;
-		}
-	}
-
-	// shift the bytes to the right by 1
-	public void shiftRightLogical()
-	{
-		// if the least significant bit of the current byte is 1 then true, otherwise false
-		boolean shiftInOne = false;
-		// for every index in the val array, starting from first index and moving to the last index
-		for(int i = 0; i < val.length; i++)
-		{
-			// if the loeast significant bit of the current byte is 1, then temp is true, otherwise temp is false
-			boolean temp = ((val[i] & 0xFF) & 0x01) == 1;
-			//shift the current byte right by 1, without trying to retain the lost bit
-			val[i] = (byte) ((val[i] & 0xFF) >>> 1);
-			// if the least significant bit of he previous byte was 1
-			if(shiftInOne)
-			{
-				// the current val should have shifted in a 1 instead of a 0, add 1 as the new most significant bit of the byte
-				val[i] = (byte) ((val[i] & 0xFF) | 0x80);
-			}
-			// the shiftInOne for the next iteration is the current iteration's temp
-			shiftInOne = temp;
-		}
-	}
-
-	// this will determine whether the result of multiplication, division, and modulus should be reurned as a positive of negative number
-	private boolean finalNegative(boolean a, boolean b)
-	{
-		// a is true if the first large int is negative
-		// b is true is the second large int is negative
-		// the finalNegative is true if only either a or b is negative, not if both or neither are
-		// if a or b is negative, and a and b is not negative, return true, the finalNegative is true
-		return (a || b) && !(a && b);
-	}
-
-	// return true if the most significant bit is 1, false if it is 0
-	public boolean getMSB()
-	{
-		return val[0] < 0;
-	}
-
-	// return true if the least significant bit is 1, false if it is 0
-	public boolean getLSB()
-	{
-		return ((val[val.length-1] & 0xFF) & 0x01) == 1;
-	}
-
-	// is the current integer 0, return true if yes, false if no
-	public boolean isZero()
-	{
-		// for every index in the val array from first index to last
-		for(int i = 0; i < val.length; i++)
-		{
-			// if the current byte is not 0
-			if((val[i] & 0xFF) != 0)
-			{
-				// then the integer is not 0, return false
-				return false;
-			}
-		}
-		// if the program made it this far, then the integer is 0, return true
-		return true;
-	}
-
-	// returns a boolean value for whether the large int is equal to 1
-	public boolean isOne()
-	{
-		// for each byte in  val from first byte to one before the last byte
-		for(int i = 0; i < val.length - 1; i++)
-		{
-			// if the value of that byte is not 0, then the large int is not equal to 1
-			if(val[i] != 0)
-			{
-				// return false
-				return false;
-			}
-		}
-		// if the program made it this far, then the last byte must be checked to make sure that it is equal to 1
-		// if val at index length - 1 = 1, returns true, else returns false
-		return val[val.length-1] == 1;
-	}
-
-	// change the least significant bit to be whatever is passed in, 1 if true, 0 if false
-	public void setLSB(boolean LSB)
-	{
-		val[val.length - 1] = (byte) (val[val.length - 1] & 0xFE);
-		if(LSB)
-		{
-			val[val.length - 1] = (byte) ((val[val.length - 1] & 0xFF) + 1);
-		}
-	}
-
-	// change the most significant bit to be whatever ispassed in, 1 if true, 0 if false
-	public void setMSB(boolean MSB)
-	{
-		val[0] = (byte) (val[0] & 0x7F);
-		if(MSB)
-		{
-			val[0] = (byte) ((val[0] & 0xFF) | 0x80);
-		}
-	}
-
-	// divide the integer that called with method by the integer passed into this method, return quotient
-	public LargeInteger division(LargeInteger divisor)
-	{
-		// set divisor to be a clone of the large int that was passed into the method
-		divisor = divisor.clone();
-		// set dividend to be a clone of the large int that called the method
-		LargeInteger dividend = this.clone();
-
-		// determine if the result shoudl be positive or negative
-		boolean negativeResult = finalNegative(divisor.isNegative(), dividend.isNegative());
-
-		// if dividend is negative
-		if(dividend.isNegative())
-		{
-			// negate dividend so it is positive
-			dividend = dividend.negate();
-		}
-
-		// if divisor is negative
-		if(divisor.isNegative())
-		{
-			// negate divisor so it is positive
-			divisor = divisor.negate();
-		}
-
-		// max will be the larger length of the byte array between dividend and divisor
-		int max = Math.max(dividend.length(), divisor.length());
-		
-		// create remainder so that it is the length of max
-		LargeInteger remainder = new LargeInteger(new byte[max]);
-		// crete quotient so that it is the length of max
-		LargeInteger quotient = new LargeInteger(new byte[max]);
-
-		// amount is the number of times the loop will run, it runs for each bit in dividend
-		int amount = dividend.length() * 8 + 1;
-	
-		// for each bit in dividend
-		for(int i = 0; i < amount; i++)
-		{
-			// shift quotient left by 1 bit
-			quotient.shiftLeftLogical();
-			// if divisor is less than or equal to remainder
-			if(divisor.lessThanOrEqual(remainder))
-			{
-				// remainder = remainder - divisor
-				remainder = remainder.subtract(divisor);
-				// set quotient's least significant bit = 1
-				quotient.setLSB(true);
-			}
-			// if i is less than amount - 1
-			if(i < (amount - 1))
-			{
-				// shift remainder left by one bit
-				remainder.shiftLeftLogical();
-				// set remainder's least significant bit to be dividend's most significant bit
-				remainder.setLSB(dividend.getMSB());
-				// shift dividend left by one bit without extending it
-				dividend.shiftLeftLogicalNoExtend();
-			}
-		}
-		
-		// if negativeResult is true
-		if(negativeResult)
-		{
-			// negate quotient
-			quotient = quotient.negate();
-		}
-		// return quotient
-		return quotient;
-	}
-
-	// divide the integer that called with method by the integer passed into this method, return remainder
-	public LargeInteger modulus(LargeInteger divisor)
-	{
-		// divisor is a clone of the large int that was passed into the method
-		divisor = divisor.clone();
-		// dividend is a clone of the large int that called this method
-		LargeInteger dividend = this.clone();
-
-		// determine whether the result should be negative
-		boolean negativeResult = finalNegative(divisor.isNegative(), dividend.isNegative());
-
-		// if dividend is negative
-		if(dividend.isNegative())
-		{
-			// negate dividend
-			dividend = dividend.negate();
-		}
-
-		// if divisor is negative
-		if(divisor.isNegative())
-		{
-			// negate divisor
-			divisor = divisor.negate();
-		}
-
-		// max is the max length between the byte arrays in divisor and dividend
-		int max = Math.max(dividend.length(), divisor.length());
-		
-		// set remainder to be the size of the max
-		LargeInteger remainder = new LargeInteger(new byte[max]);
-		// set quotient to be the size of the max
-		LargeInteger quotient = new LargeInteger(new byte[max]);
-		// amount is the number of bits + 1 that the loop will run
-		int amount = dividend.length() * 8 + 1;
-	
-		// for each bit in the dividend
-		for(int i = 0; i < amount; i++)
-		{
-			// shift quotient left by one bit
-			quotient.shiftLeftLogical();
-			// if divisor is less than or equal to remainder
-			if(divisor.lessThanOrEqual(remainder))
-			{
-				// remainder = remainder - divisor
-				remainder = remainder.subtract(divisor);
-				// set quotient's least significant bit to be 1
-				quotient.setLSB(true);
-			}
-			// if i is less than amount - 1
-			if(i < (amount - 1))
-			{
-				// shift remainder left by 1 bit
-				remainder.shiftLeftLogical();
-				// set remainder's least significant bit to be dividend's most significant bit
-				remainder.setLSB(dividend.getMSB());
-				// shift dividend left by 1 bit without extending it
-				dividend.shiftLeftLogicalNoExtend();
-			}
-		}
-
-		// if the finalresult should be negative
-		if(negativeResult)
-		{
-			// negate remainder
-			remainder = remainder.negate();
-		}
-
-		// trim remainder, in case it has leading 11111111s or 00000000s
-		remainder.trim();
-
-		// return remainder
-		return remainder;
-	}
-
-	// determine whether the integer that calls this method is less than or equal to the integer that is passed into the method
-	public boolean lessThanOrEqual(LargeInteger other)
-	{
-		// max will be the maxiumum of the number of bytes within the two integers (in case one has more bytes than the other)
-		int max = Math.max(this.length(), other.length());
-
-		// these two integers will be clones of the two used when calling this method, so that padding can be done without changing the value of any integers
-		LargeInteger a_ = this.clone();
-		LargeInteger b_ = other.clone();
-
-		// if a_ has less byte than the maximum number of bytes
-		if(a_.length() < max)
-		{
-			// pad a_ with max - the number of bytes that a_ already has, therefore making it have the same number of bytes as b_
-			a_.pad(max-a_.length());
-		}
-		// else b_ will have less than the maximum number of bytes
-		else
-		{
-			// pad b_ with max - the number of bytes that b_ already has, therefore making it have the same number of bytes as a_
-			b_.pad(max-b_.length());
-		}
-
-		// create new byte arrays that will hold the values of a_ and b_
-		byte[] a = a_.getVal();
-		byte[] b = b_.getVal();
-
-		// for each index within the a and b byte arrays, from first index to last
-		for(int i = 0; i < a.length; i++)
-		{
-			// if the integer version of a is less than the integer version of b at that index
-			if((a[i]&0xFF) < (b[i]& 0xFF))
-			{
-				// then a is less than b, therefore return true
-				return true;
-			}
-			// else if the integer version of a is greater than the integer version of b at that index
-			else if((a[i]&0xFF) > (b[i]& 0xFF))
-			{
-				// then a is greater than b, therefore return false
-				return false;
-			}
-			// else the integer version at this index for both are equal
-			else
-			{
-				// continue to the next iteration of the loop
-				continue;
-			}
-		}
-		// if the code made it this far, then the two integers must be equal, therefore return true as well
-		return true;
-	}
-
-	// determine whether the integer that calls this method is less than the integer that is passed into the method
-	public boolean lessThan(LargeInteger other)
-	{
-		// max will be the maxiumum of the number of bytes within the two integers (in case one has more bytes than the other)
-		int max = Math.max(this.length(), other.length());
-
-		// these two integers will be clones of the two used when calling this method, so that padding can be done without changing the value of any integers
-		LargeInteger a_ = this.clone();
-		LargeInteger b_ = other.clone();
-
-		// if a_ has less byte than the maximum number of bytes
-		if(a_.length() < max)
-		{
-			// pad a_ with max - the number of bytes that a_ already has, therefore making it have the same number of bytes as b_
-			a_.pad(max-a_.length());
-		}
-		// else b_ will have less than the maximum number of bytes
-		else
-		{
-			// pad b_ with max - the number of bytes that b_ already has, therefore making it have the same number of bytes as a_
-			b_.pad(max-b_.length());
-		}
-
-		// create new byte arrays that will hold the values of a_ and b_
-		byte[] a = a_.getVal();
-		byte[] b = b_.getVal();
-
-		// for each index within the a and b byte arrays, from first index to last
-		for(int i = 0; i < a.length; i++)
-		{
-			// if the integer version of a is less than the integer version of b at that index
-			if((a[i]&0xFF) < (b[i]& 0xFF))
-			{
-				// then a is less than b, therefore return true
-				return true;
-			}
-			// else if the integer version of a is greater than the integer version of b at that index
-			else if((a[i]&0xFF) > (b[i]& 0xFF))
-			{
-				// then a is greater than b, therefore return false
-				return false;
-			}
-			// else the integer version at this index for both are equal
-			else
-			{
-				// continue to the next iteration of the loop
-				continue;
-			}
-		}
-		// if the code made it this far, then the two integers must be equal, therefore return false
-		return false;
-	}
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class LargeInteger implements Comparable<LargeInteger> {
+
+	// the magnitude of the integer stored as 32-bit words, least significant word first,
+	// with no leading zero words (zero is an empty array)
+	// word arrays are never changed once a LargeInteger holds them, so they can be shared
+	private int[] mag;
+
+	// true if the integer is negative
+	private boolean negative;
+
+	// number of bytes in the two's complement byte array returned by getVal
+	private int width;
+
+	// mask to read a word as an unsigned value
+	private static final long LONG_MASK = 0xFFFFFFFFL;
+
+	// number of leading bits used by each round of single word steps in the extended gcd,
+	// small enough that the sums in the steps never overflow a long
+	private static final int LEHMER_BITS = 60;
+
+	// digits for writing out hex
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	// numbers with fewer words than this are written out in decimal, or read from 9 times as many digits,
+	// 9 digits at a time instead of being split in two around a power of ten
+	private static final int DECIMAL_THRESHOLD = 40;
+
+	// 10^(9 * 2^i) and its reciprocal for splitting decimal numbers, filled in as they are needed, 32 is enough for any int array
+	// a new table is put here each time one is added, so threads can read it without taking a lock
+	private static volatile LargeInteger[][] tenPowers = new LargeInteger[32][];
+
+	// operands with fewer words than this are multiplied with the schoolbook method
+	private static int karatsubaThreshold = Integer.getInteger("LargeInteger.karatsubaThreshold", 80);
+
+	// operands with fewer words than this (but not fewer than karatsubaThreshold) use Karatsuba, bigger ones use Toom-Cook 3-way
+	private static int toomCookThreshold = Integer.getInteger("LargeInteger.toomCookThreshold", 240);
+
+	// Karatsuba and Toom-Cook products of operands with at least this many words hand their sub-products to other cores
+	private static int parallelThreshold = Integer.getInteger("LargeInteger.parallelThreshold", 256);
+
+	// constructor if the large integer is created without any parameters, used in methods
+	public LargeInteger()
+	{
+		// zero has no magnitude words
+		mag = new int[0];
+		negative = false;
+		// it is still represented as the single byte 00000000
+		width = 1;
+	}
+
+	/**
+	 * Construct the LargeInteger from a given byte array
+	 * @param b the byte array that this LargeInteger should represent
+	 */
+	public LargeInteger(byte[] b) {
+		setVal(b);
+	}
+
+	// constructor that reads length bytes of b starting at offset, used to read numbers straight out of a file's bytes
+	LargeInteger(byte[] b, int offset, int length)
+	{
+		setVal(b, offset, length);
+	}
+
+	// constructor when passed in just a character string of bits, 8 for each byte of the two's complement, big-endian form
+	public LargeInteger(String bitString)
+	{
+		// the val array that back the large int is the length of the string of bits divided by 8 (i byte = 8 bits)
+		if(bitString.length() % 8 != 0)
+		{
+			throw new NumberFormatException("A bit string needs 8 bits for every byte: " + bitString);
+		}
+		byte[] val = new byte[bitString.length() / 8];
+		// for each bit from the most significant to least, shift the byte it is in up and bring the bit in at the bottom
+		for(int i = 0; i < bitString.length(); i++)
+		{
+			char c = bitString.charAt(i);
+			if(c != '0' && c != '1')
+			{
+				throw new NumberFormatException("A bit string can only hold 0s and 1s: " + bitString);
+			}
+			val[i >>> 3] = (byte) ((val[i >>> 3] << 1) | (c - '0'));
+		}
+		// convert the bytes into words
+		setVal(val);
+	}
+
+	/**
+	 * Construct the LargeInteger by generatin a random n-bit number that is
+	 * probably prime (2^-100 chance of being composite).
+	 * @param n the bitlength of the requested integer
+	 * @param rnd instance of java.util.Random to use in prime generation
+	 */
+	public LargeInteger(int n, Random rnd) {
+		this(PrimeGenerator.probablePrime(n, rnd));
+	}
+
+	/**
+	 * Construct the LargeInteger by generatin a random n-bit number that
+	 * passed the given number of Miller-Rabin rounds.
+	 * @param n the bitlength of the requested integer
+	 * @param rnd instance of java.util.Random to use in prime generation,
+	 *   such as a java.security.SecureRandom
+	 * @param rounds number of Miller-Rabin rounds the number must pass
+	 */
+	public LargeInteger(int n, Random rnd, int rounds) {
+		this(PrimeGenerator.probablePrime(n, rnd, rounds));
+	}
+
+	// constructor that takes on the value of another large int
+	private LargeInteger(LargeInteger other)
+	{
+		mag = other.mag;
+		negative = other.negative;
+		width = other.width;
+	}
+
+	// constructor used by the arithmetic methods, builds the integer straight from a magnitude and a sign
+	// the array is kept, so it must not be changed afterwards
+	LargeInteger(int[] mag, boolean negative)
+	{
+		// drop any leading zero words
+		this.mag = stripLeadingZeros(mag);
+		// zero is never negative
+		this.negative = negative && this.mag.length > 0;
+		// results of arithmetic use the fewest bytes possible
+		this.width = minimalWidth();
+	}
+	
+	/**
+	 * Return this LargeInteger as a two's complement, big-endian byte array
+	 * @return val
+	 */
+	public byte[] getVal() {
+		// number of words needed to cover width bytes
+		int numWords = Math.max((width + 3) / 4, mag.length);
+		int[] words = new int[numWords];
+		for(int i = 0; i < mag.length; i++)
+		{
+			words[i] = mag[i];
+		}
+
+		// negative numbers are stored as their magnitude, so take the two's complement of the words
+		if(negative)
+		{
+			negateWords(words);
+		}
+
+		// pull the bytes out of the words, least significant byte goes at the end of the array
+		byte[] val = new byte[width];
+		for(int i = 0; i < width; i++)
+		{
+			val[width - 1 - i] = (byte) (words[i >>> 2] >>> ((i & 3) << 3));
+		}
+		return val;
+	}
+
+	// replace the value of this large int with the two's complement, big-endian byte array b
+	private void setVal(byte[] b)
+	{
+		setVal(b, 0, b.length);
+	}
+
+	// replace the value of this large int with the length bytes of b starting at offset,
+	// read as a two's complement, big-endian number
+	private void setVal(byte[] b, int offset, int length)
+	{
+		// the byte array keeps its length as the width, a single byte is the smallest width
+		width = Math.max(length, 1);
+		// if the most significant bit is 1 then the number is negative
+		negative = length > 0 && b[offset] < 0;
+
+		// pack the bytes into words, 4 bytes per word, starting with the least significant byte
+		int last = offset + length - 1;
+		int[] words = new int[(length + 3) / 4];
+		for(int i = 0; i < length; i++)
+		{
+			words[i >>> 2] |= (b[last - i] & 0xFF) << ((i & 3) << 3);
+		}
+
+		if(negative)
+		{
+			// sign extend the unused bytes at the top of the last word with 11111111s
+			for(int i = length; i < words.length * 4; i++)
+			{
+				words[i >>> 2] |= 0xFF << ((i & 3) << 3);
+			}
+			// take the two's complement to get the magnitude
+			negateWords(words);
+		}
+
+		mag = stripLeadingZeros(words);
+	}
+
+	// the magnitude words, least significant first, used by the modular arithmetic classes
+	// the array is shared, so it must not be changed
+	int[] magnitude()
+	{
+		return mag;
+	}
+
+	// number of bits in the magnitude, not counting leading 0s
+	int bitLength()
+	{
+		return bitLengthMag(mag);
+	}
+
+	// the remainder of the magnitude divided by a positive int, used to sieve out small factors
+	int modInt(int divisor)
+	{
+		long remainder = 0;
+		for(int i = mag.length - 1; i >= 0; i--)
+		{
+			remainder = ((remainder << 32) | (mag[i] & LONG_MASK)) % divisor;
+		}
+		return (int) remainder;
+	}
+
+	/**
+	 * Return the number of bytes in val
+	 * @return length of the val byte array
+	 */
+	public int length() {
+		return width;
+	}
+
+	// add leading 0s to the front of the integer so comparisons can easily be done
+	public void pad(int numBytes)
+	{
+		// for a positive number leading 0s do not change the value, it just gets wider
+		if(!negative)
+		{
+			width += numBytes;
+			return;
+		}
+
+		// a negative number becomes a different (positive) number, so work on the bytes
+		byte[] val = getVal();
+		// newv is the array that will be padded, it is the original length of the array + the number of bytes added for padding
+		byte[] newv = new byte[val.length + numBytes];
+		// add each index of the original integer to the new integer, the remaining will be bytes with value 0
+		for (int i = 0; i < val.length; i++) {
+			// add the old value to the index that is its original place + the number of bytes added for padding
+			newv[i + numBytes] = val[i];
+		}
+		// set val to be the new padded array
+		setVal(newv);
+	}
+
+	/** 
+	 * Add a new byte as the most significant in this
+	 * @param extension the byte to place as most significant
+	 */
+	public void extend(byte extension) {
+		byte[] val = getVal();
+		byte[] newv = new byte[val.length + 1];
+		newv[0] = extension;
+		for (int i = 0; i < val.length; i++) {
+			newv[i + 1] = val[i];
+		}
+		setVal(newv);
+	}
+
+	/**
+	 * If this is negative, most significant bit will be 1 meaning most 
+	 * significant byte will be a negative signed number
+	 * @return true if this is negative, false if positive
+	 */
+	public boolean isNegative() {
+		return negative;
+	}
+
+	/**
+	 * Computes the sum of this and other
+	 * @param other the other LargeInteger to sum with this
+	 */
+	public LargeInteger add(LargeInteger other) {
+		// If signs match, magnitudes add and the sign stays the same
+		if (negative == other.negative) {
+			return new LargeInteger(addMag(mag, other.mag), negative);
+		}
+
+		// Otherwise the smaller magnitude is taken away from the larger one,
+		//  and the result takes the sign of the larger one
+		int cmp = compareMag(mag, other.mag);
+		if (cmp == 0) {
+			return new LargeInteger();
+		}
+		else if (cmp > 0) {
+			return new LargeInteger(subtractMag(mag, other.mag), negative);
+		}
+		else {
+			return new LargeInteger(subtractMag(other.mag, mag), other.negative);
+		}
+	}
+
+	/**
+	 * Negate val using two's complement representation
+	 * @return negation of this
+	 */
+	public LargeInteger negate() {
+		// Only the sign changes, so the magnitude words can be shared
+		return new LargeInteger(mag, !negative);
+	}
+
+	/**
+	 * Implement subtraction as simply negation and addition
+	 * @param other LargeInteger to subtract from this
+	 * @return difference of this and other
+	 */
+	public LargeInteger subtract(LargeInteger other) {
+		return this.add(other.negate());
+	}
+
+	/**
+	 * Compute the product of this and other
+	 * @param other LargeInteger to multiply by this
+	 * @return product of this and other
+	 */
+	public LargeInteger multiply(LargeInteger b) {
+		// a number times itself (or its negation, which shares the same words) can take the faster squaring path
+		if(mag == b.mag)
+		{
+			LargeInteger square = square();
+			return negative == b.negative ? square : square.negate();
+		}
+		if(Metrics.ENABLED)
+		{
+			Metrics.MULTIPLIES.increment();
+		}
+		// multiply the magnitudes, the product is negative if only one of the two is negative
+		return new LargeInteger(multiplyMag(mag, b.mag), finalNegative(negative, b.negative));
+	}
+
+	/**
+	 * Compute this * this, finding each cross product once instead of twice
+	 * @return the square of this, never negative
+	 */
+	public LargeInteger square() {
+		if(Metrics.ENABLED)
+		{
+			Metrics.SQUARINGS.increment();
+		}
+		return new LargeInteger(squareMag(mag), false);
+	}
+
+	/**
+	 * Set the operand sizes, in 32-bit words, where multiply switches algorithms.
+	 * Operands shorter than karatsuba words use the schoolbook method, operands
+	 * shorter than toomCook words use Karatsuba, and anything larger uses Toom-Cook 3-way.
+	 * The defaults can also be set with the LargeInteger.karatsubaThreshold and
+	 * LargeInteger.toomCookThreshold system properties.
+	 * @param karatsuba smallest operand size that uses Karatsuba, at least 2
+	 * @param toomCook smallest operand size that uses Toom-Cook 3-way, at least karatsuba
+	 */
+	public static void setMultiplyThresholds(int karatsuba, int toomCook) {
+		if (karatsuba < 2 || toomCook < karatsuba) {
+			throw new IllegalArgumentException("need 2 <= karatsuba <= toomCook, got " + karatsuba + " and " + toomCook);
+		}
+		karatsubaThreshold = karatsuba;
+		toomCookThreshold = toomCook;
+	}
+
+	/**
+	 * Set the operand size, in 32-bit words, from which Karatsuba and Toom-Cook
+	 * multiplication and squaring work out their sub-products on several cores at once,
+	 * with the common ForkJoinPool. Smaller operands stay on one thread, where handing
+	 * the work out would cost more than it saves, and so does everything when the
+	 * common pool only has one thread.
+	 * The default of 256 words (8192 bits) can also be set with the
+	 * LargeInteger.parallelThreshold system property.
+	 * @param words smallest operand size that is split across cores, at least 2
+	 */
+	public static void setParallelThreshold(int words) {
+		if (words < 2) {
+			throw new IllegalArgumentException("need 2 <= parallel threshold, got " + words);
+		}
+		parallelThreshold = words;
+	}
+	
+	/**
+	 * Run the extended Euclidean algorithm on this and other
+	 * @param other another LargeInteger
+	 * @return an array structured as follows:
+	 *   0:  the GCD of this and other
+	 *   1:  a valid x value
+	 *   2:  a valid y value
+	 * such that this * x + other * y == GCD in index 0
+	 */
+	public LargeInteger[] XGCD(LargeInteger other) {
+		// work on the absolute values, the signs go back on x and y at the end
+		LargeInteger a = negative ? this.negate() : this;
+		LargeInteger b = other.negative ? other.negate() : other;
+
+		// finalResult is the large int array that will be returned with the answers
+		LargeInteger[] finalResult = new LargeInteger[3];
+		// gcd(a, 0) = a = a * 1 + 0 * 0
+		if (b.isZero()) {
+			byte[] one = {(byte) 0x01};
+			finalResult[0] = a;
+			finalResult[1] = new LargeInteger(one);
+			finalResult[2] = new LargeInteger();
+		}
+		else {
+			// only x is tracked through the loop, y = (gcd - a * x) / b is found with one division at the end
+			LargeInteger[] gx = gcdAndCofactor(a, b);
+			finalResult[0] = gx[0];
+			finalResult[1] = gx[1];
+			finalResult[2] = gx[0].subtract(a.multiply(gx[1])).division(b);
+		}
+
+		// a * x = this * -x when this is negative, same for y
+		if (negative) {
+			finalResult[1] = finalResult[1].negate();
+		}
+		if (other.negative) {
+			finalResult[2] = finalResult[2].negate();
+		}
+
+		// return the finalResult array containing the answer
+		return finalResult;
+	}
+
+	/**
+	 * Compute the inverse of this mod m
+	 * @param m a positive modulus
+	 * @return x with 0 <= x < m and this * x mod m == 1
+	 * @throws ArithmeticException if this and m are not relatively prime
+	 */
+	public LargeInteger modInverse(LargeInteger m) {
+		if (m.isNegative() || m.isZero()) {
+			throw new ArithmeticException("Modulus must be positive.");
+		}
+
+		// bring this into the range 0 to m - 1 first
+		LargeInteger a = this.modulus(m);
+		if (a.isNegative()) {
+			a = a.add(m);
+		}
+		// 0 only has an inverse mod 1
+		if (a.isZero()) {
+			if (m.isOne()) {
+				return a;
+			}
+			throw new ArithmeticException("Not invertible, gcd is not 1.");
+		}
+
+		// the cofactor of m is never needed, so it is never computed
+		LargeInteger[] gx = gcdAndCofactor(a, m);
+		if (!gx[0].isOne()) {
+			throw new ArithmeticException("Not invertible, gcd is not 1.");
+		}
+		LargeInteger inverse = gx[1].modulus(m);
+		if (inverse.isNegative()) {
+			inverse = inverse.add(m);
+		}
+		return inverse;
+	}
+
+	// iterative extended gcd of the positive numbers a0 and b0 using Lehmer's method
+	// returns gcd at index 0 and x at index 1, where a0 * x is congruent to gcd mod b0
+	private static LargeInteger[] gcdAndCofactor(LargeInteger a0, LargeInteger b0)
+	{
+		LargeInteger a = a0;
+		LargeInteger b = b0;
+		// ua and ub are the cofactors of a0 for a and b, a = ua * a0 (mod b0) and b = ub * a0 (mod b0)
+		LargeInteger ua = valueOf(1);
+		LargeInteger ub = new LargeInteger();
+
+		// start with a the bigger one, so the leading bits of b fit with the same shift as a
+		// every step after that keeps a bigger than b
+		if(a.lessThan(b))
+		{
+			LargeInteger t = a;
+			a = b;
+			b = t;
+			t = ua;
+			ua = ub;
+			ub = t;
+		}
+
+		while(!b.isZero())
+		{
+			// A, B, C, D hold the combination of a and b that the single word steps add up to
+			long A = 1, B = 0, C = 0, D = 1;
+
+			// Lehmer steps only pay off while a is bigger than a word
+			int shift = a.bitLength() - LEHMER_BITS;
+			if(shift > 0)
+			{
+				// run Euclid on just the leading bits of a and b, as long as both ends of the possible
+				// range of quotients agree the quotient is the same one the full numbers would give
+				long x = topBits(a, shift);
+				long y = topBits(b, shift);
+				while(y + C != 0 && y + D != 0)
+				{
+					long q = (x + A) / (y + C);
+					if(q != (x + B) / (y + D))
+					{
+						break;
+					}
+					long t = A - q * C;
+					A = C;
+					C = t;
+					t = B - q * D;
+					B = D;
+					D = t;
+					t = x - q * y;
+					x = y;
+					y = t;
+				}
+			}
+
+			if(B == 0)
+			{
+				// no single word step could be made, do one full division step
+				LargeInteger[] qr = a.divRem(b);
+				LargeInteger nextU = ua.subtract(qr[0].multiply(ub));
+				a = b;
+				b = qr[1];
+				ua = ub;
+				ub = nextU;
+			}
+			else
+			{
+				// apply all of the single word steps to the full numbers at once
+				LargeInteger nextA = a.multiply(valueOf(A)).add(b.multiply(valueOf(B)));
+				LargeInteger nextB = a.multiply(valueOf(C)).add(b.multiply(valueOf(D)));
+				LargeInteger nextUA = ua.multiply(valueOf(A)).add(ub.multiply(valueOf(B)));
+				LargeInteger nextUB = ua.multiply(valueOf(C)).add(ub.multiply(valueOf(D)));
+				a = nextA;
+				b = nextB;
+				ua = nextUA;
+				ub = nextUB;
+			}
+		}
+
+		LargeInteger[] gx = new LargeInteger[2];
+		gx[0] = a;
+		gx[1] = ua;
+		return gx;
+	}
+
+	// the bits of the positive number x above the lowest shift bits, used by the Lehmer steps
+	private static long topBits(LargeInteger x, int shift)
+	{
+		int[] top = shiftRightMag(x.mag, shift);
+		long bits = 0;
+		if(top.length > 1)
+		{
+			bits = (top[1] & LONG_MASK) << 32;
+		}
+		if(top.length > 0)
+		{
+			bits |= top[0] & LONG_MASK;
+		}
+		return bits;
+	}
+
+	// a LargeInteger with the value of v
+	static LargeInteger valueOf(long v)
+	{
+		boolean isNegative = v < 0;
+		// the magnitude of Long.MIN_VALUE is still right when read as unsigned
+		long m = isNegative ? -v : v;
+		int[] words = {(int) m, (int) (m >>> 32)};
+		return new LargeInteger(words, isNegative);
+	}
+
+	 /**
+	  * Compute the result of raising this to the power of y mod n
+	  * @param b exponent to raise this to
+	  * @param c modulus value to use
+	  * @return this^b mod c
+	  */
+	public LargeInteger modularExp(LargeInteger b, LargeInteger c) {
+		if(this.isNegative() || b.isNegative() || c.isNegative())
+		{
+			System.out.println("Number cannot be negative, in modular exponentiation.");
+			return null;
+		}
+
+		// an odd modulus can use Montgomery multiplication, so no division is done inside the loop
+		if(c.getLSB())
+		{
+			return new MontgomeryContext(c).modularExp(this, b);
+		}
+
+		// an even one uses Barrett reduction instead, which still only divides once to set up
+		return new BarrettContext(c).modularExp(this, b);
+	}
+
+	/**
+	 * Compute the product of several powers mod n in one pass, bases[0]^exponents[0] * bases[1]^exponents[1] * ... mod n
+	 * The squarings are shared by every term, so two powers cost little more than the longer one on its own
+	 * @param bases numbers to raise to the powers
+	 * @param exponents one exponent for each base
+	 * @param n modulus value to use
+	 * @return the product of every bases[i]^exponents[i] mod n
+	 */
+	public static LargeInteger multiModExp(LargeInteger[] bases, LargeInteger[] exponents, LargeInteger n)
+	{
+		if(bases.length != exponents.length)
+		{
+			throw new IllegalArgumentException("Need one exponent for each base.");
+		}
+		if(n.isNegative())
+		{
+			System.out.println("Number cannot be negative, in modular exponentiation.");
+			return null;
+		}
+		for(int i = 0; i < bases.length; i++)
+		{
+			if(bases[i].isNegative() || exponents[i].isNegative())
+			{
+				System.out.println("Number cannot be negative, in modular exponentiation.");
+				return null;
+			}
+		}
+
+		// the same choice of reduction as modularExp
+		if(n.getLSB())
+		{
+			return new MontgomeryContext(n).multiModExp(bases, exponents);
+		}
+		return new BarrettContext(n).multiModExp(bases, exponents);
+	}
+
+	// number of exponent bits to handle at once in modular exponentiation, wider windows need
+	// fewer multiplies but a bigger table of precomputed powers, so the width grows with the exponent
+	static int exponentWindow(int bits)
+	{
+		if(bits <= 7)
+		{
+			return 1;
+		}
+		else if(bits <= 25)
+		{
+			return 2;
+		}
+		else if(bits <= 81)
+		{
+			return 3;
+		}
+		else if(bits <= 241)
+		{
+			return 4;
+		}
+		else if(bits <= 673)
+		{
+			return 5;
+		}
+		return 6;
+	}
+
+	// true if bit n of the magnitude words is 1, bit 0 is the least significant
+	static boolean testBit(int[] words, int n)
+	{
+		int word = n >>> 5;
+		return word < words.length && ((words[word] >>> (n & 31)) & 1) == 1;
+	}
+
+	// trim the unnecessary leading 00000000 or 11111111, depending on if the large int is pos or neg
+	public void trim()
+	{
+		// the fewest bytes that still hold the value and its sign bit
+		width = minimalWidth();
+	}
+
+	// create a new integer that has the same value as the one that called this method
+	public LargeInteger clone()
+	{
+		// the magnitude words are never changed in place, so the clone can share them
+		LargeInteger clone = new LargeInteger(mag, negative);
+		// keep the same number of bytes as what is being cloned
+		clone.width = width;
+		return clone;
+	}
+
+	// print out an easily read version of the large integer as a sequence of bytes, 8 bits and a space for each
+	public String toString()
+	{
+		return bitString(true);
+	}
+
+	// the bytes as 8 bits each, with nothing in between
+	public String toStringWithoutSpace()
+	{
+		return bitString(false);
+	}
+
+	// the bits of every byte of getVal, most significant first, with a space after each byte if spaced
+	// every character is written straight into one array, which is made the right size up front
+	private String bitString(boolean spaced)
+	{
+		byte[] val = getVal();
+		int stride = spaced ? 9 : 8;
+		char[] chars = new char[val.length * stride];
+		for(int i = 0; i < val.length; i++)
+		{
+			int start = i * stride;
+			for(int bit = 0; bit < 8; bit++)
+			{
+				chars[start + bit] = (char) ('0' + ((val[i] >>> (7 - bit)) & 1));
+			}
+			if(spaced)
+			{
+				chars[start + 8] = ' ';
+			}
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Write this in base 16, with a - in front if it is negative
+	 * @return lower case hex digits with no leading zeros, "0" for zero
+	 */
+	public String toHexString()
+	{
+		if(mag.length == 0)
+		{
+			return "0";
+		}
+		// 8 digits for every word, except the top one which leaves off its leading zeros
+		int topDigits = (32 - Integer.numberOfLeadingZeros(mag[mag.length - 1]) + 3) / 4;
+		char[] chars = new char[(negative ? 1 : 0) + 8 * (mag.length - 1) + topDigits];
+		// fill the digits in from the least significant end
+		int position = chars.length;
+		for(int i = 0; i < mag.length; i++)
+		{
+			int word = mag[i];
+			int digits = i == mag.length - 1 ? topDigits : 8;
+			for(int j = 0; j < digits; j++)
+			{
+				chars[--position] = HEX_DIGITS[word & 0xF];
+				word >>>= 4;
+			}
+		}
+		if(negative)
+		{
+			chars[0] = '-';
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Read a number written in base 16, like toHexString writes it
+	 * @param hex hex digits in either case, with an optional + or - in front
+	 * @return the number
+	 * @throws NumberFormatException if hex has no digits or anything that is not a hex digit
+	 */
+	public static LargeInteger fromHexString(String hex)
+	{
+		int start = signLength(hex);
+		int digits = hex.length() - start;
+		if(digits == 0)
+		{
+			throw new NumberFormatException("No hex digits: " + hex);
+		}
+		// 8 digits to a word, read from the least significant end
+		int[] words = new int[(digits + 7) / 8];
+		for(int i = 0; i < digits; i++)
+		{
+			int digit = Character.digit(hex.charAt(hex.length() - 1 - i), 16);
+			if(digit < 0)
+			{
+				throw new NumberFormatException("Not a hex number: " + hex);
+			}
+			words[i >>> 3] |= digit << ((i & 7) << 2);
+		}
+		return new LargeInteger(words, hex.charAt(0) == '-');
+	}
+
+	/**
+	 * Write this in base 10, with a - in front if it is negative
+	 * Big numbers are split in two around a power of ten, and each half is written on its own,
+	 * so the work is a few multiplies of each size instead of a division for every 9 digits
+	 * @return the decimal digits with no leading zeros, "0" for zero
+	 */
+	public String toDecimalString()
+	{
+		if(mag.length == 0)
+		{
+			return "0";
+		}
+		// a little more than log10(2^32) digits for each word
+		StringBuilder decimal = new StringBuilder(mag.length * 10 + 1);
+		if(negative)
+		{
+			decimal.append('-');
+		}
+		appendDecimal(new LargeInteger(mag, false), 0, decimal);
+		return decimal.toString();
+	}
+
+	/**
+	 * Read a number written in base 10, like toDecimalString writes it
+	 * Long strings are split in two, each half is read on its own, and the high half is
+	 * multiplied by the power of ten that the low half fills, so the work is a few multiplies
+	 * of each size instead of one for every 9 digits
+	 * @param decimal the digits 0 to 9, with an optional + or - in front
+	 * @return the number
+	 * @throws NumberFormatException if decimal has no digits or anything that is not a digit
+	 */
+	public static LargeInteger fromDecimalString(String decimal)
+	{
+		int start = signLength(decimal);
+		if(start == decimal.length())
+		{
+			throw new NumberFormatException("No decimal digits: " + decimal);
+		}
+		for(int i = start; i < decimal.length(); i++)
+		{
+			char c = decimal.charAt(i);
+			if(c < '0' || c > '9')
+			{
+				throw new NumberFormatException("Not a decimal number: " + decimal);
+			}
+		}
+		LargeInteger magnitude = parseDecimal(decimal, start, decimal.length());
+		return new LargeInteger(magnitude.mag, decimal.charAt(0) == '-');
+	}
+
+	// 1 if text starts with + or -, otherwise 0
+	private static int signLength(String text)
+	{
+		return !text.isEmpty() && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+	}
+
+	// append the decimal digits of the non-negative x to out, with leading zeros to make it digits long
+	// if digits is 0 there are no leading zeros, and nothing is appended for zero
+	private static void appendDecimal(LargeInteger x, int digits, StringBuilder out)
+	{
+		if(x.mag.length < DECIMAL_THRESHOLD)
+		{
+			appendDecimalSmall(x.mag, digits, out);
+			return;
+		}
+
+		// split around the cached power of ten P with P <= x < P^2, so the high half is at least 1 and both are less than P
+		int i = 0;
+		while(!x.lessThan(tenPower(i + 1)[0]))
+		{
+			i++;
+		}
+		LargeInteger[] halves = divRemTenPower(x, i);
+		int lowDigits = 9 << i;
+		appendDecimal(halves[0], digits == 0 ? 0 : digits - lowDigits, out);
+		appendDecimal(halves[1], lowDigits, out);
+	}
+
+	// append the decimal digits of the magnitude a to out, with leading zeros to make it digits long,
+	// by dividing by 10^9 over and over, which is quicker than splitting for a number this small
+	private static void appendDecimalSmall(int[] a, int digits, StringBuilder out)
+	{
+		// each division leaves the next 9 digits as the remainder, least significant first
+		int[] words = a.clone();
+		int length = words.length;
+		int[] chunks = new int[length * 11 / 10 + 2];
+		int count = 0;
+		while(length > 0)
+		{
+			long remainder = 0;
+			for(int j = length - 1; j >= 0; j--)
+			{
+				long current = (remainder << 32) | (words[j] & LONG_MASK);
+				words[j] = (int) (current / 1000000000L);
+				remainder = current % 1000000000L;
+			}
+			chunks[count++] = (int) remainder;
+			while(length > 0 && words[length - 1] == 0)
+			{
+				length--;
+			}
+		}
+
+		// the most significant chunk has no leading zeros of its own, so pad in front of it
+		String top = count == 0 ? "" : Integer.toString(chunks[count - 1]);
+		for(int j = top.length() + 9 * Math.max(count - 1, 0); j < digits; j++)
+		{
+			out.append('0');
+		}
+		out.append(top);
+		// every other chunk is exactly 9 digits
+		char[] chunk = new char[9];
+		for(int c = count - 2; c >= 0; c--)
+		{
+			int value = chunks[c];
+			for(int j = 8; j >= 0; j--)
+			{
+				chunk[j] = (char) ('0' + value % 10);
+				value /= 10;
+			}
+			out.append(chunk);
+		}
+	}
+
+	// the number written by the digits from start up to end of text, which are all 0 to 9
+	private static LargeInteger parseDecimal(String text, int start, int end)
+	{
+		int length = end - start;
+		if(length <= 9 * DECIMAL_THRESHOLD)
+		{
+			return parseDecimalSmall(text, start, end);
+		}
+
+		// the low half is the biggest cached power of ten's worth of digits that leaves some for the high half
+		int i = 0;
+		while((9 << (i + 1)) < length)
+		{
+			i++;
+		}
+		int split = end - (9 << i);
+		LargeInteger high = parseDecimal(text, start, split);
+		LargeInteger low = parseDecimal(text, split, end);
+		return high.multiply(tenPower(i)[0]).add(low);
+	}
+
+	// the number written by the digits from start up to end of text, read 9 digits at a time,
+	// each time multiplying what has been read so far by 10^9 and adding the new digits
+	private static LargeInteger parseDecimalSmall(String text, int start, int end)
+	{
+		// a little more than log2(10^9) / 32 words for every 9 digits
+		int[] words = new int[(end - start) / 9 + 2];
+		int length = 0;
+		// the first chunk takes whatever is left over, so the rest are 9 digits each
+		int chunkEnd = start + ((end - start) % 9 == 0 ? 9 : (end - start) % 9);
+		int chunkStart = start;
+		while(chunkStart < end)
+		{
+			int value = 0;
+			for(int j = chunkStart; j < chunkEnd; j++)
+			{
+				value = value * 10 + (text.charAt(j) - '0');
+			}
+			long scale = chunkStart == start ? 1 : 1000000000L;
+
+			// words = words * scale + value
+			long carry = value;
+			for(int j = 0; j < length; j++)
+			{
+				carry += (words[j] & LONG_MASK) * scale;
+				words[j] = (int) carry;
+				carry >>>= 32;
+			}
+			if(carry != 0)
+			{
+				words[length++] = (int) carry;
+			}
+
+			chunkStart = chunkEnd;
+			chunkEnd += 9;
+		}
+		return new LargeInteger(words, false);
+	}
+
+	// x divided by 10^(9 * 2^i), where x is non-negative and less than its square, returned as the quotient and remainder
+	// this is Barrett's method with the reciprocal cached next to the power, so the division is two multiplies
+	// of about half the size of x, and those use Karatsuba or Toom-Cook once they are big enough
+	private static LargeInteger[] divRemTenPower(LargeInteger x, int i)
+	{
+		LargeInteger[] power = tenPower(i);
+		LargeInteger p = power[0];
+		int k = p.mag.length;
+		// q = floor(floor(x / b^(k - 1)) * mu / b^(k + 1)) is at most 2 less than the real quotient
+		LargeInteger q = shiftRight(shiftRight(x, 32 * (k - 1)).multiply(power[1]), 32 * (k + 1));
+		LargeInteger r = x.subtract(q.multiply(p));
+		LargeInteger one = valueOf(1);
+		while(!r.lessThan(p))
+		{
+			r = r.subtract(p);
+			q = q.add(one);
+		}
+		return new LargeInteger[] {q, r};
+	}
+
+	// 10^(9 * 2^i), and floor(b^(2k) / 10^(9 * 2^i)) where b = 2^32 and k is the number of words in the power
+	// each one is worked out the first time it is needed and then kept, since they are the same for every number
+	private static LargeInteger[] tenPower(int i)
+	{
+		// once a power is in the table it never changes, so reading it needs no lock
+		LargeInteger[] power = tenPowers[i];
+		if(power != null)
+		{
+			return power;
+		}
+		return addTenPower(i);
+	}
+
+	// work out power i for tenPower, the lock keeps two threads from doing the same big division at once
+	private static synchronized LargeInteger[] addTenPower(int i)
+	{
+		// another thread may have added it while this one waited for the lock
+		if(tenPowers[i] != null)
+		{
+			return tenPowers[i];
+		}
+		LargeInteger p = i == 0 ? valueOf(1000000000L) : tenPower(i - 1)[0].square();
+		int[] b2k = new int[2 * p.mag.length + 1];
+		b2k[2 * p.mag.length] = 1;
+		LargeInteger[] power = new LargeInteger[] {p, new LargeInteger(b2k, false).division(p)};
+
+		// copy the table rather than writing into it, readers only ever see a table whose entries are finished
+		LargeInteger[][] table = tenPowers.clone();
+		table[i] = power;
+		tenPowers = table;
+		return power;
+	}
+
+	// shift the bytes to the left by one bit
+	public void shiftLeftLogical()
+	{
+		// shifting the magnitude doubles the value whatever the sign is
+		mag = shiftLeftMag(mag, 1);
+		// if the integer no longer fits in its bytes, extend it
+		width = Math.max(width, minimalWidth());
+	}
+
+	// shift the bytes to the left by one bit
+	public void shiftLeftLogicalNoExtend()
+		{
+		// the bits that fall off the front depend on the byte width, so shift the bytes themselves
+		byte[] val = getVal();
+		// if the most significant bit of the current byte is 1, then this will be true, so that a 1 is shifted in easily
+		boolean shiftInOne = false;
+	
+		// for every index in the val array, starting from the last index and moving to the first index
+		for(int i = val.length - 1; i >= 0; i--)
+		{
+			// temp is true if the current byte would be negativeon its own, that is, that its most significant bit is 1
+			boolean temp = val[i] < 0;
+			// shift the current index of val to the left by one bit
+			val[i] = (byte) (val[i] << 1);
+			// if the most significant bit of the previous index was 1
+			if(shiftInOne)
+			{
+				// the current val should have shifted in a 1 instead of a 0, add 1 to as the new least significant bit in the byte
+				val[i] = (byte) ((val[i] & 0xFF) + 1);
+			}
+			// the next iteration's shiftInOne is the current iteration's temp
+			shiftInOne = temp;
+		}
+		// store the shifted bytes back as words
+		setVal(val);
+	}
+
+	// shift the bytes to the right by 1
+	public void shiftRightLogical()
+	{
+		// a positive number just has its magnitude halved, the width stays the same
+		if(!negative)
+		{
+			mag = shiftRightMag(mag, 1);
+			return;
+		}
+
+		// a negative number shifts a 0 into its sign bit, so shift the bytes themselves
+		byte[] val = getVal();
+		// if the least significant bit of the current byte is 1 then true, otherwise false
+		boolean shiftInOne = false;
+		// for every index in the val array, starting from first index and moving to the last index
+		for(int i = 0; i < val.length; i++)
+		{
+			// if the loeast significant bit of the current byte is 1, then temp is true, otherwise temp is false
+			boolean temp = ((val[i] & 0xFF) & 0x01) == 1;
+			//shift the current byte right by 1, without trying to retain the lost bit
+			val[i] = (byte) ((val[i] & 0xFF) >>> 1);
+			// if the least significant bit of he previous byte was 1
+			if(shiftInOne)
+			{
+				// the current val should have shifted in a 1 instead of a 0, add 1 as the new most significant bit of the byte
+				val[i] = (byte) ((val[i] & 0xFF) | 0x80);
+			}
+			// the shiftInOne for the next iteration is the current iteration's temp
+			shiftInOne = temp;
+		}
+		// store the shifted bytes back as words
+		setVal(val);
+	}
+
+	// this will determine whether the result of multiplication, division, and modulus should be reurned as a positive of negative number
+	private boolean finalNegative(boolean a, boolean b)
+	{
+		// a is true if the first large int is negative
+		// b is true is the second large int is negative
+		// the finalNegative is true if only either a or b is negative, not if both or neither are
+		// if a or b is negative, and a and b is not negative, return true, the finalNegative is true
+		return (a || b) && !(a && b);
+	}
+
+	// return true if the most significant bit is 1, false if it is 0
+	public boolean getMSB()
+	{
+		// in two's complement the most significant bit is the sign bit
+		return negative;
+	}
+
+	// return true if the least significant bit is 1, false if it is 0
+	public boolean getLSB()
+	{
+		// the two's complement and the magnitude always have the same least significant bit
+		return mag.length > 0 && (mag[0] & 0x01) == 1;
+	}
+
+	// is the current integer 0, return true if yes, false if no
+	public boolean isZero()
+	{
+		// zero is the only value with no magnitude words
+		return mag.length == 0;
+	}
+
+	// returns a boolean value for whether the large int is equal to 1
+	public boolean isOne()
+	{
+		// positive, a single word, and that word is 1
+		return !negative && mag.length == 1 && mag[0] == 1;
+	}
+
+	// change the least significant bit to be whatever is passed in, 1 if true, 0 if false
+	public void setLSB(boolean LSB)
+	{
+		// if the bit is already right there is nothing to do
+		if(getLSB() == LSB)
+		{
+			return;
+		}
+		// in two's complement, turning the last bit on adds 1 and turning it off takes 1 away
+		byte[] one = {(byte) 0x01};
+		LargeInteger changed = LSB ? this.add(new LargeInteger(one)) : this.subtract(new LargeInteger(one));
+		mag = changed.mag;
+		negative = changed.negative;
+		width = Math.max(width, changed.width);
+	}
+
+	// change the most significant bit to be whatever ispassed in, 1 if true, 0 if false
+	public void setMSB(boolean MSB)
+	{
+		// the most significant bit depends on the byte width, so change the bytes themselves
+		byte[] val = getVal();
+		val[0] = (byte) (val[0] & 0x7F);
+		if(MSB)
+		{
+			val[0] = (byte) ((val[0] & 0xFF) | 0x80);
+		}
+		setVal(val);
+	}
+
+	/**
+	 * Divide this by divisor, finding the quotient and remainder together
+	 * @param divisor LargeInteger to divide this by, must not be zero
+	 * @return an array structured as follows:
+	 *   0:  the quotient, rounded toward zero
+	 *   1:  the remainder
+	 * both are negative when exactly one of this and divisor is negative
+	 */
+	public LargeInteger[] divRem(LargeInteger divisor) {
+		if (divisor.isZero()) {
+			throw new ArithmeticException("Division by zero.");
+		}
+		if(Metrics.ENABLED)
+		{
+			Metrics.DIVISIONS.increment();
+		}
+
+		// divide the magnitudes, then put the signs back on
+		int[][] qr = divRemMag(mag, divisor.mag);
+		boolean negativeResult = finalNegative(negative, divisor.negative);
+
+		LargeInteger[] result = new LargeInteger[2];
+		result[0] = new LargeInteger(qr[0], negativeResult);
+		result[1] = new LargeInteger(qr[1], negativeResult);
+		return result;
+	}
+
+	// divide the integer that called with method by the integer passed into this method, return quotient
+	public LargeInteger division(LargeInteger divisor)
+	{
+		// the quotient is index 0 of divRem
+		return divRem(divisor)[0];
+	}
+
+	// divide the integer that called with method by the integer passed into this method, return remainder
+	public LargeInteger modulus(LargeInteger divisor)
+	{
+		// the remainder is index 1 of divRem
+		return divRem(divisor)[1];
+	}
+
+	// determine whether the integer that calls this method is less than or equal to the integer that is passed into the method
+	public boolean lessThanOrEqual(LargeInteger other)
+	{
+		return compareTo(other) <= 0;
+	}
+
+	// determine whether the integer that calls this method is less than the integer that is passed into the method
+	public boolean lessThan(LargeInteger other)
+	{
+		return compareTo(other) < 0;
+	}
+
+	/**
+	 * Compare this to other by value, reading the words of both in place without copying either
+	 * @param other LargeInteger to compare against
+	 * @return a negative number, zero, or a positive number if this is less than, equal to, or greater than other
+	 */
+	public int compareTo(LargeInteger other)
+	{
+		// different signs, the negative one is smaller
+		if(negative != other.negative)
+		{
+			return negative ? -1 : 1;
+		}
+		// same sign, compare the magnitudes, flipping the answer if both are negative
+		int cmp = compareMag(mag, other.mag);
+		return negative ? -cmp : cmp;
+	}
+
+	/**
+	 * Check if other is a LargeInteger with the same value as this
+	 * The byte width is not part of the value, so 00000001 and 00000000 00000001 are equal
+	 * @param other object to compare against
+	 * @return true if other holds the same value
+	 */
+	public boolean equals(Object other)
+	{
+		if(this == other)
+		{
+			return true;
+		}
+		if(!(other instanceof LargeInteger))
+		{
+			return false;
+		}
+		LargeInteger that = (LargeInteger) other;
+		return negative == that.negative && compareMag(mag, that.mag) == 0;
+	}
+
+	/**
+	 * Hash code that matches equals, so LargeIntegers can be used as map keys
+	 * @return hash of the sign and magnitude words
+	 */
+	public int hashCode()
+	{
+		int hash = 0;
+		for(int i = mag.length - 1; i >= 0; i--)
+		{
+			hash = 31 * hash + mag[i];
+		}
+		return negative ? -hash : hash;
+	}
+
+	// the fewest bytes that can hold this in two's complement with a sign bit
+	private int minimalWidth()
+	{
+		int bits = bitLengthMag(mag);
+		// -2^k fits in the same number of bits as 2^k - 1, so powers of two need one bit less
+		if(negative && isPowerOfTwoMag(mag))
+		{
+			bits--;
+		}
+		// one extra bit is always needed for the sign
+		return bits / 8 + 1;
+	}
+
+	// number of bits in the magnitude a, not counting leading 0s
+	private static int bitLengthMag(int[] a)
+	{
+		if(a.length == 0)
+		{
+			return 0;
+		}
+		return (a.length - 1) * 32 + (32 - Integer.numberOfLeadingZeros(a[a.length - 1]));
+	}
+
+	// true if the magnitude a has exactly one bit set
+	private static boolean isPowerOfTwoMag(int[] a)
+	{
+		if(a.length == 0 || Integer.bitCount(a[a.length - 1]) != 1)
+		{
+			return false;
+		}
+		for(int i = 0; i < a.length - 1; i++)
+		{
+			if(a[i] != 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// return a with its leading 0 words removed, a itself is returned if there are none
+	private static int[] stripLeadingZeros(int[] a)
+	{
+		int len = a.length;
+		while(len > 0 && a[len - 1] == 0)
+		{
+			len--;
+		}
+		if(len == a.length)
+		{
+			return a;
+		}
+		int[] stripped = new int[len];
+		System.arraycopy(a, 0, stripped, 0, len);
+		return stripped;
+	}
+
+	// take the two's complement of the words in place, flipping every bit and adding 1
+	private static void negateWords(int[] words)
+	{
+		long carry = 1;
+		for(int i = 0; i < words.length; i++)
+		{
+			carry += (~words[i]) & LONG_MASK;
+			words[i] = (int) carry;
+			carry >>>= 32;
+		}
+	}
+
+	// compare the magnitudes a and b, returns -1, 0 or 1
+	private static int compareMag(int[] a, int[] b)
+	{
+		// with no leading 0 words, more words means a bigger number
+		if(a.length != b.length)
+		{
+			return a.length < b.length ? -1 : 1;
+		}
+		// otherwise the first word that differs from the most significant end decides
+		for(int i = a.length - 1; i >= 0; i--)
+		{
+			if(a[i] != b[i])
+			{
+				return (a[i] & LONG_MASK) < (b[i] & LONG_MASK) ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	// compute the magnitude a + b
+	private static int[] addMag(int[] a, int[] b)
+	{
+		// put the longer magnitude first
+		if(a.length < b.length)
+		{
+			int[] temp = a;
+			a = b;
+			b = temp;
+		}
+
+		// one extra word in case the carry runs off the end
+		int[] sum = new int[a.length + 1];
+		long carry = 0;
+		int i = 0;
+		// add the words both have
+		for(; i < b.length; i++)
+		{
+			carry += (a[i] & LONG_MASK) + (b[i] & LONG_MASK);
+			sum[i] = (int) carry;
+			carry >>>= 32;
+		}
+		// carry through the rest of the longer one
+		for(; i < a.length; i++)
+		{
+			carry += a[i] & LONG_MASK;
+			sum[i] = (int) carry;
+			carry >>>= 32;
+		}
+		sum[i] = (int) carry;
+		return stripLeadingZeros(sum);
+	}
+
+	// compute the magnitude a - b, a must be at least as big as b
+	private static int[] subtractMag(int[] a, int[] b)
+	{
+		int[] difference = new int[a.length];
+		long borrow = 0;
+		int i = 0;
+		// subtract the words both have, the sign of the long tells whether to borrow
+		for(; i < b.length; i++)
+		{
+			borrow = (a[i] & LONG_MASK) - (b[i] & LONG_MASK) + borrow;
+			difference[i] = (int) borrow;
+			borrow >>= 32;
+		}
+		// borrow through the rest of a
+		for(; i < a.length; i++)
+		{
+			borrow = (a[i] & LONG_MASK) + borrow;
+			difference[i] = (int) borrow;
+			borrow >>= 32;
+		}
+		return stripLeadingZeros(difference);
+	}
+
+	// shift the magnitude a to the left by n bits
+	private static int[] shiftLeftMag(int[] a, int n)
+	{
+		if(a.length == 0)
+		{
+			return a;
+		}
+		int wordShift = n >>> 5;
+		int bitShift = n & 31;
+		int[] shifted = new int[a.length + wordShift + 1];
+		if(bitShift == 0)
+		{
+			System.arraycopy(a, 0, shifted, wordShift, a.length);
+		}
+		else
+		{
+			// each word takes its low bits from its own word and its high bits from the word below
+			for(int i = 0; i < a.length; i++)
+			{
+				shifted[i + wordShift] |= a[i] << bitShift;
+				shifted[i + wordShift + 1] = a[i] >>> (32 - bitShift);
+			}
+		}
+		return stripLeadingZeros(shifted);
+	}
+
+	// shift the magnitude a to the right by n bits, dropping the bits that fall off
+	private static int[] shiftRightMag(int[] a, int n)
+	{
+		int wordShift = n >>> 5;
+		int bitShift = n & 31;
+		if(wordShift >= a.length)
+		{
+			return new int[0];
+		}
+		int[] shifted = new int[a.length - wordShift];
+		if(bitShift == 0)
+		{
+			System.arraycopy(a, wordShift, shifted, 0, shifted.length);
+		}
+		else
+		{
+			// each word takes its high bits from its own word and its low bits from the word above
+			for(int i = 0; i < shifted.length; i++)
+			{
+				shifted[i] = a[i + wordShift] >>> bitShift;
+				if(i + wordShift + 1 < a.length)
+				{
+					shifted[i] |= a[i + wordShift + 1] << (32 - bitShift);
+				}
+			}
+		}
+		return stripLeadingZeros(shifted);
+	}
+
+	// compute the magnitude a * b, picking the algorithm by the size of the operands
+	private static int[] multiplyMag(int[] a, int[] b)
+	{
+		if(a.length == 0 || b.length == 0)
+		{
+			return new int[0];
+		}
+		if(a.length < karatsubaThreshold || b.length < karatsubaThreshold)
+		{
+			return schoolbookMag(a, b);
+		}
+		if(a.length < toomCookThreshold || b.length < toomCookThreshold)
+		{
+			return karatsubaMag(a, b);
+		}
+		return toomCook3Mag(a, b);
+	}
+
+	// compute the magnitude a * b one word at a time, multiplying every word of a by every word of b
+	private static int[] schoolbookMag(int[] a, int[] b)
+	{
+		int[] product = new int[a.length + b.length];
+		multiplyWords(a, a.length, b, b.length, product);
+		return stripLeadingZeros(product);
+	}
+
+	// write the product of the first aLength words of a and the first bLength words of b into the first
+	// aLength + bLength words of z, adding every word of a times every word of b into place
+	// nothing is allocated, so this also works on the scratch buffers of a BarrettContext
+	static void multiplyWords(int[] a, int aLength, int[] b, int bLength, int[] z)
+	{
+		Arrays.fill(z, 0, aLength + bLength, 0);
+		for(int i = 0; i < aLength; i++)
+		{
+			long ai = a[i] & LONG_MASK;
+			long carry = 0;
+			// add ai * b into the product, starting at word i
+			for(int j = 0; j < bLength; j++)
+			{
+				// (2^32 - 1)^2 + 2 * (2^32 - 1) still fits in 64 unsigned bits
+				carry += ai * (b[j] & LONG_MASK) + (z[i + j] & LONG_MASK);
+				z[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+			z[i + bLength] = (int) carry;
+		}
+	}
+
+	// compute the magnitude a * a, with the same size thresholds as multiplyMag
+	private static int[] squareMag(int[] a)
+	{
+		if(a.length == 0)
+		{
+			return new int[0];
+		}
+		if(a.length < karatsubaThreshold)
+		{
+			int[] square = new int[2 * a.length];
+			squareWords(a, a.length, square);
+			return stripLeadingZeros(square);
+		}
+		if(a.length < toomCookThreshold)
+		{
+			return karatsubaSquareMag(a);
+		}
+		return toomCook3SquareMag(a);
+	}
+
+	// write the square of the first length words of a into the first 2 * length words of z, one word at a time
+	// a * a is the sum of a[i] * a[j] over every i and j, where each cross product with i != j shows up twice,
+	// so the cross products are added once, doubled with a shift, and then the squares a[i] * a[i] are added
+	// nothing is allocated, so this also works on the scratch buffers of a BarrettContext or a MontgomeryContext
+	static void squareWords(int[] a, int length, int[] z)
+	{
+		Arrays.fill(z, 0, 2 * length, 0);
+
+		// the sum of a[i] * a[j] for i < j, each row starts at word 2 * i + 1
+		for(int i = 0; i < length - 1; i++)
+		{
+			long ai = a[i] & LONG_MASK;
+			long carry = 0;
+			for(int j = i + 1; j < length; j++)
+			{
+				carry += ai * (a[j] & LONG_MASK) + (z[i + j] & LONG_MASK);
+				z[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+			z[i + length] = (int) carry;
+		}
+
+		// double the cross products, they are less than half of the square so nothing is shifted off the top
+		int previous = 0;
+		for(int i = 0; i < 2 * length; i++)
+		{
+			int word = z[i];
+			z[i] = (word << 1) | (previous >>> 31);
+			previous = word;
+		}
+
+		// add a[i] * a[i] at word 2 * i
+		long carry = 0;
+		for(int i = 0; i < length; i++)
+		{
+			long square = (a[i] & LONG_MASK) * (a[i] & LONG_MASK);
+			carry += (z[2 * i] & LONG_MASK) + (square & LONG_MASK);
+			z[2 * i] = (int) carry;
+			carry >>>= 32;
+			carry += (z[2 * i + 1] & LONG_MASK) + (square >>> 32);
+			z[2 * i + 1] = (int) carry;
+			carry >>>= 32;
+		}
+	}
+
+	// compute the magnitude a * a with Karatsuba, using three half size squares instead of four products
+	private static int[] karatsubaSquareMag(int[] a)
+	{
+		int half = (a.length + 1) / 2;
+		int[] low = lowWords(a, half);
+		int[] high = highWords(a, half);
+
+		// z0 = low^2, z2 = high^2, z1 = (low + high)^2 - z0 - z2 = 2 * low * high
+		int[] sum = addMag(low, high);
+		int[] z0;
+		int[] z1;
+		int[] z2;
+		if(isParallel(a.length))
+		{
+			// z0 and z2 are worked out on other cores while this thread does z1
+			ForkJoinTask<int[]> lowTask = ForkJoinTask.adapt(() -> squareMag(low)).fork();
+			ForkJoinTask<int[]> highTask = ForkJoinTask.adapt(() -> squareMag(high)).fork();
+			z1 = squareMag(sum);
+			z2 = highTask.join();
+			z0 = lowTask.join();
+		}
+		else
+		{
+			z0 = squareMag(low);
+			z2 = squareMag(high);
+			z1 = squareMag(sum);
+		}
+		z1 = subtractMag(subtractMag(z1, z0), z2);
+
+		// square = z2 * 2^(64 * half) + z1 * 2^(32 * half) + z0
+		int[] square = shiftLeftMag(z2, 32 * half);
+		square = addMag(square, z1);
+		square = shiftLeftMag(square, 32 * half);
+		return addMag(square, z0);
+	}
+
+	// compute the magnitude a * b with Karatsuba, using three half size products instead of four
+	private static int[] karatsubaMag(int[] a, int[] b)
+	{
+		// split both operands at the same word so the pieces line up
+		int half = (Math.max(a.length, b.length) + 1) / 2;
+		int[] aLow = lowWords(a, half);
+		int[] aHigh = highWords(a, half);
+		int[] bLow = lowWords(b, half);
+		int[] bHigh = highWords(b, half);
+
+		// z0 = aLow * bLow, z2 = aHigh * bHigh
+		// z1 = (aLow + aHigh) * (bLow + bHigh) - z0 - z2 = aLow * bHigh + aHigh * bLow
+		int[] aSum = addMag(aLow, aHigh);
+		int[] bSum = addMag(bLow, bHigh);
+		int[] z0;
+		int[] z1;
+		int[] z2;
+		if(isParallel(Math.max(a.length, b.length)))
+		{
+			// z0 and z2 are worked out on other cores while this thread does z1
+			ForkJoinTask<int[]> lowTask = ForkJoinTask.adapt(() -> multiplyMag(aLow, bLow)).fork();
+			ForkJoinTask<int[]> highTask = ForkJoinTask.adapt(() -> multiplyMag(aHigh, bHigh)).fork();
+			z1 = multiplyMag(aSum, bSum);
+			z2 = highTask.join();
+			z0 = lowTask.join();
+		}
+		else
+		{
+			z0 = multiplyMag(aLow, bLow);
+			z2 = multiplyMag(aHigh, bHigh);
+			z1 = multiplyMag(aSum, bSum);
+		}
+		z1 = subtractMag(subtractMag(z1, z0), z2);
+
+		// product = z2 * 2^(64 * half) + z1 * 2^(32 * half) + z0
+		int[] product = shiftLeftMag(z2, 32 * half);
+		product = addMag(product, z1);
+		product = shiftLeftMag(product, 32 * half);
+		return addMag(product, z0);
+	}
+
+	// compute the magnitude a * b with Toom-Cook 3-way, using five third size products instead of nine
+	// the pieces are evaluated at 0, 1, -1, 2 and infinity and interpolated with Bodrato's sequence
+	private static int[] toomCook3Mag(int[] a, int[] b)
+	{
+		// split both operands into three pieces of k words, the top piece gets whatever is left
+		int k = (Math.max(a.length, b.length) + 2) / 3;
+		LargeInteger a0 = new LargeInteger(sliceWords(a, 0, k), false);
+		LargeInteger a1 = new LargeInteger(sliceWords(a, k, 2 * k), false);
+		LargeInteger a2 = new LargeInteger(highWords(a, 2 * k), false);
+		LargeInteger b0 = new LargeInteger(sliceWords(b, 0, k), false);
+		LargeInteger b1 = new LargeInteger(sliceWords(b, k, 2 * k), false);
+		LargeInteger b2 = new LargeInteger(highWords(b, 2 * k), false);
+
+		// the pieces at -1, 1 and 2, the one at -1 can be negative
+		LargeInteger da = a2.add(a0);
+		LargeInteger db = b2.add(b0);
+		LargeInteger am1 = da.subtract(a1);
+		LargeInteger bm1 = db.subtract(b1);
+		LargeInteger ap1 = da.add(a1);
+		LargeInteger bp1 = db.add(b1);
+		// 4 * a2 + 2 * a1 + a0
+		LargeInteger ap2 = shiftLeft(ap1.add(a2), 1).subtract(a0);
+		LargeInteger bp2 = shiftLeft(bp1.add(b2), 1).subtract(b0);
+
+		// evaluate the product at 0, -1, 1, 2 and infinity
+		LargeInteger v0;
+		LargeInteger vm1;
+		LargeInteger v1;
+		LargeInteger v2;
+		LargeInteger vinf;
+		if(isParallel(Math.max(a.length, b.length)))
+		{
+			// the five products do not depend on each other, so four go to other cores while this thread does the fifth
+			ForkJoinTask<LargeInteger> v0Task = ForkJoinTask.adapt(() -> multiplyPart(a0, b0)).fork();
+			ForkJoinTask<LargeInteger> vm1Task = ForkJoinTask.adapt(() -> multiplyPart(am1, bm1)).fork();
+			ForkJoinTask<LargeInteger> v1Task = ForkJoinTask.adapt(() -> multiplyPart(ap1, bp1)).fork();
+			ForkJoinTask<LargeInteger> vinfTask = ForkJoinTask.adapt(() -> multiplyPart(a2, b2)).fork();
+			v2 = multiplyPart(ap2, bp2);
+			vinf = vinfTask.join();
+			v1 = v1Task.join();
+			vm1 = vm1Task.join();
+			v0 = v0Task.join();
+		}
+		else
+		{
+			v0 = multiplyPart(a0, b0);
+			vm1 = multiplyPart(am1, bm1);
+			v1 = multiplyPart(ap1, bp1);
+			v2 = multiplyPart(ap2, bp2);
+			vinf = multiplyPart(a2, b2);
+		}
+
+		return toomCook3Interpolate(v0, vm1, v1, v2, vinf, k);
+	}
+
+	// compute the magnitude a * a with Toom-Cook 3-way, the same as toomCook3Mag(a, a) but with the single
+	// operand evaluated once and the five values at 0, -1, 1, 2 and infinity squared instead of multiplied
+	private static int[] toomCook3SquareMag(int[] a)
+	{
+		// split into three pieces of k words, the top piece gets whatever is left
+		int k = (a.length + 2) / 3;
+		LargeInteger a0 = new LargeInteger(sliceWords(a, 0, k), false);
+		LargeInteger a1 = new LargeInteger(sliceWords(a, k, 2 * k), false);
+		LargeInteger a2 = new LargeInteger(highWords(a, 2 * k), false);
+
+		// the pieces at -1, 1 and 2, the one at -1 can be negative but its square is not
+		LargeInteger da = a2.add(a0);
+		LargeInteger am1 = da.subtract(a1);
+		LargeInteger ap1 = da.add(a1);
+		// 4 * a2 + 2 * a1 + a0
+		LargeInteger ap2 = shiftLeft(ap1.add(a2), 1).subtract(a0);
+
+		// evaluate the square at 0, -1, 1, 2 and infinity
+		LargeInteger v0;
+		LargeInteger vm1;
+		LargeInteger v1;
+		LargeInteger v2;
+		LargeInteger vinf;
+		if(isParallel(a.length))
+		{
+			// the five squares do not depend on each other, so four go to other cores while this thread does the fifth
+			ForkJoinTask<LargeInteger> v0Task = ForkJoinTask.adapt(() -> squarePart(a0)).fork();
+			ForkJoinTask<LargeInteger> vm1Task = ForkJoinTask.adapt(() -> squarePart(am1)).fork();
+			ForkJoinTask<LargeInteger> v1Task = ForkJoinTask.adapt(() -> squarePart(ap1)).fork();
+			ForkJoinTask<LargeInteger> vinfTask = ForkJoinTask.adapt(() -> squarePart(a2)).fork();
+			v2 = squarePart(ap2);
+			vinf = vinfTask.join();
+			v1 = v1Task.join();
+			vm1 = vm1Task.join();
+			v0 = v0Task.join();
+		}
+		else
+		{
+			v0 = squarePart(a0);
+			vm1 = squarePart(am1);
+			v1 = squarePart(ap1);
+			v2 = squarePart(ap2);
+			vinf = squarePart(a2);
+		}
+		return toomCook3Interpolate(v0, vm1, v1, v2, vinf, k);
+	}
+
+	// put the product back together from its values at 0, -1, 1, 2 and infinity, with pieces of k words
+	private static int[] toomCook3Interpolate(LargeInteger v0, LargeInteger vm1, LargeInteger v1, LargeInteger v2, LargeInteger vinf, int k)
+	{
+		// interpolate, every division here is exact
+		LargeInteger t2 = exactDivideBy3(v2.subtract(vm1));
+		LargeInteger tm1 = shiftRight(v1.subtract(vm1), 1);
+		LargeInteger t1 = v1.subtract(v0);
+		t2 = shiftRight(t2.subtract(t1), 1);
+		t1 = t1.subtract(tm1).subtract(vinf);
+		t2 = t2.subtract(shiftLeft(vinf, 1));
+		tm1 = tm1.subtract(t2);
+
+		// recombine the coefficients, each one k words above the last
+		int shift = 32 * k;
+		LargeInteger product = shiftLeft(vinf, shift).add(t2);
+		product = shiftLeft(product, shift).add(t1);
+		product = shiftLeft(product, shift).add(tm1);
+		product = shiftLeft(product, shift).add(v0);
+		return product.mag;
+	}
+
+	// x * y for a piece of a larger product, straight through multiplyMag like karatsubaMag's pieces
+	// so it is not counted in the metrics as a multiply of its own
+	private static LargeInteger multiplyPart(LargeInteger x, LargeInteger y)
+	{
+		// zero is never negative, the constructor takes care of a 0 piece
+		return new LargeInteger(multiplyMag(x.mag, y.mag), x.negative != y.negative);
+	}
+
+	// x * x for a piece of a larger square, straight through squareMag so it is not counted as a squaring of its own
+	private static LargeInteger squarePart(LargeInteger x)
+	{
+		return new LargeInteger(squareMag(x.mag), false);
+	}
+
+	// true if a product of operands with this many words should hand its sub-products to other cores
+	private static boolean isParallel(int words)
+	{
+		return words >= parallelThreshold && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+	// x * 2^n, keeping the sign
+	private static LargeInteger shiftLeft(LargeInteger x, int n)
+	{
+		return new LargeInteger(shiftLeftMag(x.mag, n), x.negative);
+	}
+
+	// x / 2^n rounded toward zero, keeping the sign
+	static LargeInteger shiftRight(LargeInteger x, int n)
+	{
+		return new LargeInteger(shiftRightMag(x.mag, n), x.negative);
+	}
+
+	// x / 3 for an x that is known to divide evenly, keeping the sign
+	private static LargeInteger exactDivideBy3(LargeInteger x)
+	{
+		int[] quotient = new int[x.mag.length];
+		long remainder = 0;
+		// long division by 3 from the most significant word down
+		for(int i = x.mag.length - 1; i >= 0; i--)
+		{
+			long current = (remainder << 32) | (x.mag[i] & LONG_MASK);
+			quotient[i] = (int) (current / 3);
+			remainder = current % 3;
+		}
+		return new LargeInteger(quotient, x.negative);
+	}
+
+	// the words of a from index from up to (not including) index to, with leading 0 words removed
+	private static int[] sliceWords(int[] a, int from, int to)
+	{
+		from = Math.min(from, a.length);
+		to = Math.min(to, a.length);
+		int[] slice = new int[to - from];
+		System.arraycopy(a, from, slice, 0, slice.length);
+		return stripLeadingZeros(slice);
+	}
+
+	// the lowest n words of a
+	private static int[] lowWords(int[] a, int n)
+	{
+		return sliceWords(a, 0, n);
+	}
+
+	// the words of a above the lowest n
+	private static int[] highWords(int[] a, int n)
+	{
+		return sliceWords(a, n, a.length);
+	}
+
+	// divide the magnitude u by the magnitude v (not zero) with Knuth's Algorithm D
+	// returns the quotient at index 0 and the remainder at index 1
+	private static int[][] divRemMag(int[] u, int[] v)
+	{
+		int[][] qr = new int[2][];
+
+		// a smaller dividend divides 0 times
+		if(compareMag(u, v) < 0)
+		{
+			qr[0] = new int[0];
+			qr[1] = u;
+			return qr;
+		}
+
+		// a one word divisor only needs short division
+		if(v.length == 1)
+		{
+			long divisor = v[0] & LONG_MASK;
+			int[] quotient = new int[u.length];
+			long remainder = 0;
+			for(int i = u.length - 1; i >= 0; i--)
+			{
+				long current = (remainder << 32) | (u[i] & LONG_MASK);
+				quotient[i] = (int) Long.divideUnsigned(current, divisor);
+				remainder = Long.remainderUnsigned(current, divisor);
+			}
+			qr[0] = stripLeadingZeros(quotient);
+			qr[1] = stripLeadingZeros(new int[] {(int) remainder});
+			return qr;
+		}
+
+		// normalize, shifting both so the top bit of the divisor is set, which keeps each quotient guess within 2 of the real digit
+		int n = v.length;
+		int m = u.length - n;
+		int shift = Integer.numberOfLeadingZeros(v[n - 1]);
+		int[] vn = new int[n];
+		int[] un = new int[u.length + 1];
+		for(int i = n - 1; i > 0; i--)
+		{
+			vn[i] = (v[i] << shift) | (shift == 0 ? 0 : v[i - 1] >>> (32 - shift));
+		}
+		vn[0] = v[0] << shift;
+		un[u.length] = shift == 0 ? 0 : u[u.length - 1] >>> (32 - shift);
+		for(int i = u.length - 1; i > 0; i--)
+		{
+			un[i] = (u[i] << shift) | (shift == 0 ? 0 : u[i - 1] >>> (32 - shift));
+		}
+		un[0] = u[0] << shift;
+
+		int[] quotient = new int[m + 1];
+		divideNormalized(un, m, vn, n, quotient);
+
+		// undo the normalization on the remainder
+		int[] remainder = new int[n];
+		for(int i = 0; i < n; i++)
+		{
+			remainder[i] = (un[i] >>> shift) | (shift == 0 ? 0 : un[i + 1] << (32 - shift));
+		}
+		qr[0] = stripLeadingZeros(quotient);
+		qr[1] = stripLeadingZeros(remainder);
+		return qr;
+	}
+
+	// the inner loop of Algorithm D, un holds the normalized dividend in m + n + 1 words and vn the normalized divisor in n words (n at least 2)
+	// the remainder is left in the low n words of un, and the quotient words go in quotient
+	private static void divideNormalized(int[] un, int m, int[] vn, int n, int[] quotient)
+	{
+		long vTop = vn[n - 1] & LONG_MASK;
+		long vNext = vn[n - 2] & LONG_MASK;
+
+		// find one quotient word at a time, from the most significant down
+		for(int j = m; j >= 0; j--)
+		{
+			// guess the quotient word from the top two words of the remainder and the top word of the divisor
+			long top = ((un[j + n] & LONG_MASK) << 32) | (un[j + n - 1] & LONG_MASK);
+			long qhat = Long.divideUnsigned(top, vTop);
+			long rhat = Long.remainderUnsigned(top, vTop);
+			// the second divisor word tells when the guess is too big
+			while(qhat > LONG_MASK || Long.compareUnsigned(qhat * vNext, (rhat << 32) | (un[j + n - 2] & LONG_MASK)) > 0)
+			{
+				qhat--;
+				rhat += vTop;
+				if(rhat > LONG_MASK)
+				{
+					break;
+				}
+			}
+
+			// take qhat * divisor away from the remainder
+			long borrow = 0;
+			for(int i = 0; i < n; i++)
+			{
+				long product = qhat * (vn[i] & LONG_MASK);
+				long t = (un[i + j] & LONG_MASK) - borrow - (product & LONG_MASK);
+				un[i + j] = (int) t;
+				borrow = (product >>> 32) - (t >> 32);
+			}
+			long t = (un[j + n] & LONG_MASK) - borrow;
+			un[j + n] = (int) t;
+
+			// the guess can still be 1 too big, in which case the remainder went negative, so add the divisor back
+			if(t < 0)
+			{
+				qhat--;
+				long carry = 0;
+				for(int i = 0; i < n; i++)
+				{
+					carry += (un[i + j] & LONG_MASK) + (vn[i] & LONG_MASK);
+					un[i + j] = (int) carry;
+					carry >>>= 32;
+				}
+				un[j + n] += (int) carry;
+			}
+			quotient[j] = (int) qhat;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the key and signature files.
+ * Files are written in a compact binary form: the bytes LINT, a version byte,
+ * a count byte, and then each number as a 4-byte big-endian length followed by
+ * its two's complement, big-endian bytes (LargeInteger.getVal()).
+ * Reading also accepts the older text form, one number per line written as a
+ * string of 0s and 1s.
+ */
+public class LargeIntegerFile
+{
+    // first bytes of a binary file
+    private static final byte[] MAGIC = {'L', 'I', 'N', 'T'};
+
+    // version of the binary form written by this class
+    private static final int VERSION = 1;
+
+    // write the numbers to filename in the binary form
+    public static void write(String filename, LargeInteger... values) throws IOException
+    {
+        if(values.length > 255)
+        {
+            throw new IllegalArgumentException("At most 255 numbers fit in one file.");
+        }
+
+        // work out the size first so the whole file goes out in one write
+        byte[][] encoded = new byte[values.length][];
+        int size = MAGIC.length + 2;
+        for(int i = 0; i < values.length; i++)
+        {
+            encoded[i] = values[i].getVal();
+            size += 4 + encoded[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put((byte) VERSION).put((byte) values.length);
+        for(byte[] value : encoded)
+        {
+            buffer.putInt(value.length).put(value);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Files.write(Paths.get(filename), buffer.array());
+        if(Metrics.ENABLED)
+        {
+            Metrics.IO.record(System.nanoTime() - start);
+        }
+    }
+
+    // read every number in filename, in either the binary or the older bit string form
+    public static LargeInteger[] read(String filename) throws IOException
+    {
+        // the whole file comes in with one read
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        byte[] data = Files.readAllBytes(Paths.get(filename));
+        if(Metrics.ENABLED)
+        {
+            Metrics.IO.record(System.nanoTime() - start);
+        }
+        if(isBinary(data))
+        {
+            return readBinary(data, filename);
+        }
+        return readBitStrings(data, filename);
+    }
+
+    // true if data starts with the binary form's magic bytes
+    private static boolean isBinary(byte[] data)
+    {
+        if(data.length < MAGIC.length)
+        {
+            return false;
+        }
+        for(int i = 0; i < MAGIC.length; i++)
+        {
+            if(data[i] != MAGIC[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // each number is built straight from its bytes inside data, nothing is copied first
+    private static LargeInteger[] readBinary(byte[] data, String filename) throws IOException
+    {
+        if(data.length < MAGIC.length + 2 || data[MAGIC.length] != VERSION)
+        {
+            throw new IOException(filename + " is not a supported version of the binary format.");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, MAGIC.length + 2, data.length - MAGIC.length - 2);
+        LargeInteger[] values = new LargeInteger[data[MAGIC.length + 1] & 0xFF];
+        for(int i = 0; i < values.length; i++)
+        {
+            if(buffer.remaining() < 4)
+            {
+                throw new IOException(filename + " is cut off.");
+            }
+            int length = buffer.getInt();
+            if(length < 1 || length > buffer.remaining())
+            {
+                throw new IOException(filename + " is cut off.");
+            }
+            values[i] = new LargeInteger(data, buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        }
+        return values;
+    }
+
+    // one number per line, written as a string of 0s and 1s
+    private static LargeInteger[] readBitStrings(byte[] data, String filename) throws IOException
+    {
+        List<LargeInteger> values = new ArrayList<>();
+        for(String line : new String(data, StandardCharsets.US_ASCII).split("\\s+"))
+        {
+            if(line.isEmpty())
+            {
+                continue;
+            }
+            if(line.length() % 8 != 0 || !line.matches("[01]+"))
+            {
+                throw new IOException(filename + " is not a key or signature file.");
+            }
+            values.add(new LargeInteger(line));
+        }
+        return values.toArray(new LargeInteger[0]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds that any number of threads can record into.
+ * Every power of two is split into 8 buckets, so a percentile read back from it is
+ * within about 6% of the real latency, and recording is one array increment no
+ * matter how many latencies have been recorded.
+ */
+public class LatencyHistogram
+{
+	// buckets per power of two
+	private static final int SUB_BUCKETS = 8;
+
+	// latencies below SUB_BUCKETS nanoseconds get a bucket each, then 8 buckets for each power of two up to 2^63
+	private static final int BUCKETS = SUB_BUCKETS * 62;
+
+	// number of latencies recorded in each bucket
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	// number of latencies recorded
+	private final LongAdder count = new LongAdder();
+
+	// sum of every latency recorded, for the mean
+	private final LongAdder total = new LongAdder();
+
+	// the longest latency recorded
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record one latency
+	 * @param nanos the latency in nanoseconds, negative values count as 0
+	 */
+	public void record(long nanos)
+	{
+		nanos = Math.max(nanos, 0);
+		buckets.incrementAndGet(bucket(nanos));
+		count.increment();
+		total.add(nanos);
+		// only loop when this is a new maximum, which is rare once the histogram has warmed up
+		long current;
+		while(nanos > (current = max.get()) && !max.compareAndSet(current, nanos))
+		{
+		}
+	}
+
+	/**
+	 * Forget everything recorded so far
+	 * Latencies recorded while this runs may be partly kept
+	 */
+	public void reset()
+	{
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	/**
+	 * Take a copy of the numbers recorded so far, in microseconds
+	 * @return the count, mean, 50th, 90th and 99th percentiles, and maximum
+	 */
+	public Snapshot snapshot()
+	{
+		// copy the buckets first, so every percentile comes from the same counts
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			counts[i] = buckets.get(i);
+			n += counts[i];
+		}
+		long longest = max.get();
+		double mean = n == 0 ? 0 : total.sum() / (double) n / 1000;
+		return new Snapshot(n, mean, percentile(counts, n, 0.50, longest) / 1000.0, percentile(counts, n, 0.90, longest) / 1000.0,
+			percentile(counts, n, 0.99, longest) / 1000.0, longest / 1000.0);
+	}
+
+	// the bucket that a latency is counted in
+	private static int bucket(long nanos)
+	{
+		if(nanos < SUB_BUCKETS)
+		{
+			return (int) nanos;
+		}
+		// the power of two, and the 3 bits below the top bit pick the bucket within it
+		int power = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (power - 3)) & (SUB_BUCKETS - 1);
+		return (power - 2) * SUB_BUCKETS + sub;
+	}
+
+	// the latency in the middle of a bucket
+	private static long middle(int bucket)
+	{
+		if(bucket < SUB_BUCKETS)
+		{
+			return bucket;
+		}
+		int power = bucket / SUB_BUCKETS + 2;
+		int sub = bucket % SUB_BUCKETS;
+		long width = 1L << (power - 3);
+		return (SUB_BUCKETS + sub) * width + width / 2;
+	}
+
+	// the latency that fraction p of the n counted latencies are at or below, never more than the maximum
+	private static long percentile(long[] counts, long n, double p, long longest)
+	{
+		if(n == 0)
+		{
+			return 0;
+		}
+		long rank = (long) Math.ceil(p * n);
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if(seen >= rank)
+			{
+				return Math.min(middle(i), longest);
+			}
+		}
+		return longest;
+	}
+
+	/**
+	 * The numbers in a histogram at one point in time, in microseconds
+	 * Over JMX this shows up as a composite value with one item per getter
+	 */
+	public static class Snapshot
+	{
+		private final long count;
+		private final double meanMicros;
+		private final double p50Micros;
+		private final double p90Micros;
+		private final double p99Micros;
+		private final double maxMicros;
+
+		public Snapshot(long count, double meanMicros, double p50Micros, double p90Micros, double p99Micros, double maxMicros)
+		{
+			this.count = count;
+			this.meanMicros = meanMicros;
+			this.p50Micros = p50Micros;
+			this.p90Micros = p90Micros;
+			this.p99Micros = p99Micros;
+			this.maxMicros = maxMicros;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+
+		public double getMeanMicros()
+		{
+			return meanMicros;
+		}
+
+		public double getP50Micros()
+		{
+			return p50Micros;
+		}
+
+		public double getP90Micros()
+		{
+			return p90Micros;
+		}
+
+		public double getP99Micros()
+		{
+			return p99Micros;
+		}
+
+		public double getMaxMicros()
+		{
+			return maxMicros;
+		}
+
+		// one line, count then each latency in microseconds
+		public String toString()
+		{
+			return String.format("count %d  mean %.1f us  p50 %.1f us  p90 %.1f us  p99 %.1f us  max %.1f us",
+				count, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros);
+		}
+	}
+}
\ No newline at end of file
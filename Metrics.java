@@ -0,0 +1,216 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in counters and latency histograms for LargeInteger and RsaSign.
+ * Run with -DLargeInteger.metrics=true to turn them on. ENABLED is a constant, so
+ * with them off every measurement, which is always inside if(Metrics.ENABLED), is
+ * compiled away by the JIT and costs nothing.
+ * With them on, the numbers are published as the MXBean LargeInteger:type=Metrics,
+ * and also printed to standard error every -DLargeInteger.metrics.dumpSeconds=N seconds.
+ */
+public class Metrics implements MetricsMXBean
+{
+	/** true if metrics are being collected, read once from the LargeInteger.metrics system property */
+	public static final boolean ENABLED = Boolean.getBoolean("LargeInteger.metrics");
+
+	/** name of the MXBean */
+	public static final String OBJECT_NAME = "LargeInteger:type=Metrics";
+
+	// operation counters, LongAdder so threads counting at the same time do not slow each other down
+	static final LongAdder MULTIPLIES = new LongAdder();
+	static final LongAdder SQUARINGS = new LongAdder();
+	static final LongAdder REDUCTIONS = new LongAdder();
+	static final LongAdder DIVISIONS = new LongAdder();
+	static final LongAdder MODULAR_EXPS = new LongAdder();
+	static final LongAdder MODULAR_EXP_BYTES = new LongAdder();
+
+	// latencies of the phases of RsaSign
+	static final LatencyHistogram HASH = new LatencyHistogram();
+	static final LatencyHistogram EXPONENTIATION = new LatencyHistogram();
+	static final LatencyHistogram IO = new LatencyHistogram();
+
+	// per thread allocation counter, null if this JVM does not have one
+	private static final com.sun.management.ThreadMXBean THREADS = threadAllocationCounter();
+
+	static
+	{
+		if(ENABLED)
+		{
+			register();
+			startDump(Long.getLong("LargeInteger.metrics.dumpSeconds", 0));
+		}
+	}
+
+	/**
+	 * Bytes allocated so far by the current thread, for measuring what an operation allocates
+	 * @return the running total, or 0 if the JVM can not count it
+	 */
+	static long allocatedBytes()
+	{
+		return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Count one modular exponentiation and the work it did
+	 * @param bytes bytes allocated while it ran
+	 * @param multiplies products it took
+	 * @param squarings squares it took
+	 * @param reductions reductions mod n it took
+	 */
+	static void recordModularExp(long bytes, long multiplies, long squarings, long reductions)
+	{
+		MODULAR_EXPS.increment();
+		MODULAR_EXP_BYTES.add(bytes);
+		MULTIPLIES.add(multiplies);
+		SQUARINGS.add(squarings);
+		REDUCTIONS.add(reductions);
+	}
+
+	/**
+	 * Everything collected so far, as text
+	 * @return a few lines with the counters, then a line for each histogram
+	 */
+	public static String report()
+	{
+		long exps = MODULAR_EXPS.sum();
+		return String.format("LargeInteger metrics%n"
+			+ "  multiplies %d, squarings %d, reductions %d, divisions %d%n"
+			+ "  modularExp %d calls, %d bytes allocated per call%n"
+			+ "  hash            %s%n"
+			+ "  exponentiation  %s%n"
+			+ "  io              %s%n",
+			MULTIPLIES.sum(), SQUARINGS.sum(), REDUCTIONS.sum(), DIVISIONS.sum(),
+			exps, exps == 0 ? 0 : MODULAR_EXP_BYTES.sum() / exps,
+			HASH.snapshot(), EXPONENTIATION.snapshot(), IO.snapshot());
+	}
+
+	public long getMultiplies()
+	{
+		return MULTIPLIES.sum();
+	}
+
+	public long getSquarings()
+	{
+		return SQUARINGS.sum();
+	}
+
+	public long getReductions()
+	{
+		return REDUCTIONS.sum();
+	}
+
+	public long getDivisions()
+	{
+		return DIVISIONS.sum();
+	}
+
+	public long getModularExps()
+	{
+		return MODULAR_EXPS.sum();
+	}
+
+	public long getModularExpBytesAllocated()
+	{
+		return MODULAR_EXP_BYTES.sum();
+	}
+
+	public long getAverageModularExpBytes()
+	{
+		long exps = MODULAR_EXPS.sum();
+		return exps == 0 ? 0 : MODULAR_EXP_BYTES.sum() / exps;
+	}
+
+	public LatencyHistogram.Snapshot getHashLatency()
+	{
+		return HASH.snapshot();
+	}
+
+	public LatencyHistogram.Snapshot getExponentiationLatency()
+	{
+		return EXPONENTIATION.snapshot();
+	}
+
+	public LatencyHistogram.Snapshot getIoLatency()
+	{
+		return IO.snapshot();
+	}
+
+	public String getReport()
+	{
+		return report();
+	}
+
+	public void reset()
+	{
+		MULTIPLIES.reset();
+		SQUARINGS.reset();
+		REDUCTIONS.reset();
+		DIVISIONS.reset();
+		MODULAR_EXPS.reset();
+		MODULAR_EXP_BYTES.reset();
+		HASH.reset();
+		EXPONENTIATION.reset();
+		IO.reset();
+	}
+
+	// the HotSpot thread bean can count the bytes each thread allocates, other JVMs may not
+	private static com.sun.management.ThreadMXBean threadAllocationCounter()
+	{
+		if(!ENABLED || !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+		{
+			return null;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if(!threads.isThreadAllocatedMemorySupported())
+		{
+			return null;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		return threads;
+	}
+
+	// publish the MXBean on the platform MBean server, where jconsole and other JMX clients look
+	private static void register()
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new Metrics(), new ObjectName(OBJECT_NAME));
+		}
+		catch(JMException err)
+		{
+			// metrics still work without JMX, so just say why it is not there
+			System.err.println("Metrics could not be registered with JMX: " + err);
+		}
+	}
+
+	// print the report to standard error every period seconds on a background thread, if period is more than 0
+	private static void startDump(long period)
+	{
+		if(period <= 0)
+		{
+			return;
+		}
+		Thread dump = new Thread(() ->
+		{
+			try
+			{
+				while(true)
+				{
+					Thread.sleep(period * 1000);
+					System.err.print(report());
+				}
+			}
+			catch(InterruptedException err)
+			{
+				// stop dumping
+			}
+		}, "LargeInteger-metrics-dump");
+		// the dump should never keep the program running
+		dump.setDaemon(true);
+		dump.start();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+/**
+ * What Metrics publishes over JMX, as the MXBean LargeInteger:type=Metrics.
+ * Counts are totals since the start (or the last reset), and latencies are in microseconds.
+ */
+public interface MetricsMXBean
+{
+	// number of LargeInteger products, and Montgomery products and products in modular exponentiation
+	long getMultiplies();
+
+	// number of squares, the squaring steps of modular exponentiation included
+	long getSquarings();
+
+	// number of reductions mod n, Montgomery or by division, in modular exponentiation
+	long getReductions();
+
+	// number of divRem, division and modulus calls
+	long getDivisions();
+
+	// number of modular exponentiations
+	long getModularExps();
+
+	// bytes allocated by the threads doing modular exponentiation, while doing it
+	long getModularExpBytesAllocated();
+
+	// average bytes allocated by one modular exponentiation
+	long getAverageModularExpBytes();
+
+	// time RsaSign spends reading and hashing files
+	LatencyHistogram.Snapshot getHashLatency();
+
+	// time RsaSign spends signing or verifying a hash with the key
+	LatencyHistogram.Snapshot getExponentiationLatency();
+
+	// time spent reading and writing key and signature files
+	LatencyHistogram.Snapshot getIoLatency();
+
+	// everything above as text, the same as the periodic dump
+	String getReport();
+
+	// set every count back to 0 and empty the histograms
+	void reset();
+}
\ No newline at end of file
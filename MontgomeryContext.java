@@ -0,0 +1,510 @@
+import java.util.Arrays;
+
+/**
+ * Montgomery multiplication for a fixed odd modulus n.
+ * Numbers are kept in Montgomery form, x * R mod n with R = 2^(32 * k) where n
+ * has k words, so a product can be reduced with multiplies and shifts instead
+ * of a division. Everything that only depends on n is computed once here, so one
+ * context can be reused for every operation with the same key.
+ */
+public class MontgomeryContext
+{
+	// mask to read a word as an unsigned value
+	private static final long LONG_MASK = 0xFFFFFFFFL;
+
+	// the modulus
+	private final LargeInteger n;
+
+	// the modulus as exactly k words, least significant first
+	private final int[] mod;
+
+	// number of words in the modulus
+	private final int k;
+
+	// -n^-1 mod 2^32
+	private final int nPrime;
+
+	// R mod n, which is 1 in Montgomery form
+	private final LargeInteger rModN;
+
+	// R^2 mod n, multiplying by it converts into Montgomery form
+	private final LargeInteger r2ModN;
+
+	/**
+	 * Precompute R mod n, R^2 mod n and n' for the modulus n
+	 * @param n an odd, positive modulus
+	 */
+	public MontgomeryContext(LargeInteger n)
+	{
+		if(n.isNegative() || !n.getLSB())
+		{
+			throw new IllegalArgumentException("Montgomery modulus must be odd and positive.");
+		}
+		this.n = n;
+		this.k = n.magnitude().length;
+		this.mod = n.magnitude().clone();
+
+		// invert the lowest word mod 2^32 with Newton's method, each step doubles the correct bits
+		int inverse = mod[0];
+		for(int i = 0; i < 4; i++)
+		{
+			inverse *= 2 - mod[0] * inverse;
+		}
+		this.nPrime = -inverse;
+
+		// R mod n and R^2 mod n are the only real divisions this context ever does
+		int[] r = new int[k + 1];
+		r[k] = 1;
+		this.rModN = new LargeInteger(r, false).modulus(n);
+		int[] r2 = new int[2 * k + 1];
+		r2[2 * k] = 1;
+		this.r2ModN = new LargeInteger(r2, false).modulus(n);
+	}
+
+	/**
+	 * Return the modulus of this context
+	 * @return n
+	 */
+	public LargeInteger getModulus()
+	{
+		return n;
+	}
+
+	/**
+	 * Convert x into Montgomery form
+	 * @param x any LargeInteger, it is reduced mod n first if needed
+	 * @return x * R mod n
+	 */
+	public LargeInteger toMontgomery(LargeInteger x)
+	{
+		return toLargeInteger(mul(toWords(reduce(x)), toWords(r2ModN)));
+	}
+
+	/**
+	 * Convert x out of Montgomery form
+	 * @param x a number in Montgomery form
+	 * @return x * R^-1 mod n
+	 */
+	public LargeInteger fromMontgomery(LargeInteger x)
+	{
+		int[] one = new int[k];
+		one[0] = 1;
+		return toLargeInteger(mul(toWords(x), one));
+	}
+
+	/**
+	 * Multiply two numbers in Montgomery form
+	 * @param a a number in Montgomery form
+	 * @param b a number in Montgomery form
+	 * @return a * b * R^-1 mod n, the product in Montgomery form
+	 */
+	public LargeInteger montMul(LargeInteger a, LargeInteger b)
+	{
+		if(Metrics.ENABLED)
+		{
+			Metrics.MULTIPLIES.increment();
+			Metrics.REDUCTIONS.increment();
+		}
+		return toLargeInteger(mul(toWords(a), toWords(b)));
+	}
+
+	/**
+	 * Square a number in Montgomery form
+	 * @param a a number in Montgomery form
+	 * @return a * a * R^-1 mod n, the square in Montgomery form
+	 */
+	public LargeInteger montSquare(LargeInteger a)
+	{
+		if(Metrics.ENABLED)
+		{
+			Metrics.SQUARINGS.increment();
+			Metrics.REDUCTIONS.increment();
+		}
+		int[] result = new int[k];
+		square(toWords(a), new int[2 * k + 1], result);
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Compute base^exponent mod n without dividing inside the loop
+	 * @param base the number to raise to the power, reduced mod n first if needed
+	 * @param exponent a non-negative exponent
+	 * @return base^exponent mod n
+	 */
+	public LargeInteger modularExp(LargeInteger base, LargeInteger exponent)
+	{
+		return modularExp(base, new ExponentWindows(exponent));
+	}
+
+	/**
+	 * Compute base^exponent mod n without dividing inside the loop, with the exponent already recoded
+	 * @param base the number to raise to the power, reduced mod n first if needed
+	 * @param exponent the windows of a non-negative exponent
+	 * @return base^exponent mod n
+	 */
+	public LargeInteger modularExp(LargeInteger base, ExponentWindows exponent)
+	{
+		// with metrics on, count the work done and the bytes allocated by this call
+		long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+		int squarings = 0;
+		int multiplies = 0;
+
+		// scratch words for the products and squares, shared by every step below so the loop allocates nothing
+		int[] t = new int[2 * k + 1];
+
+		// odd powers base^1, base^3, ... in Montgomery form, as many as the windows use, built once for this call
+		int[][] powers = new int[Math.max(exponent.tableSize(), 1)][];
+		powers[0] = mul(toWords(reduce(base)), toWords(r2ModN));
+		if(powers.length > 1)
+		{
+			int[] square = new int[k];
+			square(powers[0], t, square);
+			squarings++;
+			for(int i = 1; i < powers.length; i++)
+			{
+				powers[i] = new int[k];
+				mul(powers[i - 1], square, t, powers[i]);
+				multiplies++;
+			}
+		}
+
+		// result starts as the first window's power, or 1 in Montgomery form for an exponent of 0
+		// every product is written straight back over it
+		int[] result = exponent.count() == 0 ? toWords(rModN) : powers[exponent.value(0) >>> 1].clone();
+
+		// for each window after that, shift the result up past it, then multiply in the odd power it ends with
+		for(int w = 1; w < exponent.count(); w++)
+		{
+			for(int j = exponent.squarings(w); j > 0; j--)
+			{
+				square(result, t, result);
+			}
+			squarings += exponent.squarings(w);
+			mul(result, powers[exponent.value(w) >>> 1], t, result);
+			multiplies++;
+		}
+		// and the 0 bits below the last window are just squarings
+		for(int j = exponent.trailingSquarings(); j > 0; j--)
+		{
+			square(result, t, result);
+		}
+		squarings += exponent.trailingSquarings();
+
+		// multiplying by 1 takes the result back out of Montgomery form
+		int[] one = new int[k];
+		one[0] = 1;
+		mul(result, one, t, result);
+
+		// converting into and out of Montgomery form are a product each, and every product and square includes a reduction
+		if(Metrics.ENABLED)
+		{
+			multiplies += 2;
+			Metrics.recordModularExp(Metrics.allocatedBytes() - allocated, multiplies, squarings, multiplies + squarings);
+		}
+		return toLargeInteger(result);
+	}
+
+	/**
+	 * Compute bases[0]^exponents[0] * bases[1]^exponents[1] * ... mod n with one shared run of squarings
+	 * @param bases the numbers to raise to the powers, each reduced mod n first if needed
+	 * @param exponents one non-negative exponent for each base
+	 * @return the product of every bases[i]^exponents[i] mod n
+	 */
+	public LargeInteger multiModExp(LargeInteger[] bases, LargeInteger[] exponents)
+	{
+		ExponentWindows[] windows = new ExponentWindows[exponents.length];
+		for(int i = 0; i < exponents.length; i++)
+		{
+			windows[i] = new ExponentWindows(exponents[i]);
+		}
+		return multiModExp(bases, windows);
+	}
+
+	/**
+	 * Compute bases[0]^exponents[0] * bases[1]^exponents[1] * ... mod n with one shared run of squarings, with the exponents already recoded
+	 * Each exponent keeps its own windows, and the windows of every exponent are walked together from the top bit down,
+	 * so the result is squared once per bit of the longest exponent, and each window multiplies in a power of its own base
+	 * @param bases the numbers to raise to the powers, each reduced mod n first if needed
+	 * @param exponents the windows of one non-negative exponent for each base
+	 * @return the product of every bases[i]^exponents[i] mod n
+	 */
+	public LargeInteger multiModExp(LargeInteger[] bases, ExponentWindows[] exponents)
+	{
+		if(bases.length != exponents.length)
+		{
+			throw new IllegalArgumentException("Need one exponent for each base.");
+		}
+		// with metrics on, count the work done and the bytes allocated by this call
+		long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+		int squarings = 0;
+		int multiplies = 0;
+
+		// scratch words for the products and squares, shared by every step below so the loop allocates nothing
+		int[] t = new int[2 * k + 1];
+
+		// for each base, its odd powers in Montgomery form, and the next window to multiply in and the bit it ends at
+		int terms = bases.length;
+		int[][][] powers = new int[terms][][];
+		int[] next = new int[terms];
+		int[] low = new int[terms];
+		int top = -1;
+		for(int i = 0; i < terms; i++)
+		{
+			ExponentWindows e = exponents[i];
+			// an exponent of 0 has no windows, so its base is never needed
+			if(e.count() == 0)
+			{
+				low[i] = -1;
+				continue;
+			}
+			powers[i] = new int[e.tableSize()][];
+			// converting into Montgomery form is a product too
+			powers[i][0] = mul(toWords(reduce(bases[i])), toWords(r2ModN));
+			multiplies++;
+			if(powers[i].length > 1)
+			{
+				int[] square = new int[k];
+				square(powers[i][0], t, square);
+				squarings++;
+				for(int j = 1; j < powers[i].length; j++)
+				{
+					powers[i][j] = new int[k];
+					mul(powers[i][j - 1], square, t, powers[i][j]);
+					multiplies++;
+				}
+			}
+			low[i] = e.bitLength() - e.squarings(0);
+			top = Math.max(top, e.bitLength() - 1);
+		}
+
+		// 1 in Montgomery form until the first window is reached, then every product is written straight back over it
+		int[] result = toWords(rModN);
+		boolean started = false;
+
+		// one bit at a time from the top bit of the longest exponent: shift the result up past the bit,
+		// then multiply in the odd power of each window that ends at it
+		for(int bit = top; bit >= 0; bit--)
+		{
+			if(started)
+			{
+				square(result, t, result);
+				squarings++;
+			}
+			for(int i = 0; i < terms; i++)
+			{
+				if(low[i] != bit)
+				{
+					continue;
+				}
+				ExponentWindows e = exponents[i];
+				int[] power = powers[i][e.value(next[i]) >>> 1];
+				// the first window needs no product, the result just starts as its power
+				if(started)
+				{
+					mul(result, power, t, result);
+					multiplies++;
+				}
+				else
+				{
+					System.arraycopy(power, 0, result, 0, k);
+					started = true;
+				}
+				next[i]++;
+				low[i] = next[i] < e.count() ? low[i] - e.squarings(next[i]) : -1;
+			}
+		}
+
+		// multiplying by 1 takes the result back out of Montgomery form
+		int[] one = new int[k];
+		one[0] = 1;
+		mul(result, one, t, result);
+
+		// converting out of Montgomery form is one more product, and every product and square includes a reduction
+		if(Metrics.ENABLED)
+		{
+			multiplies++;
+			Metrics.recordModularExp(Metrics.allocatedBytes() - allocated, multiplies, squarings, multiplies + squarings);
+		}
+		return toLargeInteger(result);
+	}
+
+	// x mod n as a positive number
+	private LargeInteger reduce(LargeInteger x)
+	{
+		// already in range, nothing to do
+		if(!x.isNegative() && x.lessThan(n))
+		{
+			return x;
+		}
+		LargeInteger remainder = x.modulus(n);
+		// modulus keeps the sign of x, so move a negative remainder back into range
+		if(remainder.isNegative())
+		{
+			remainder = remainder.add(n);
+		}
+		return remainder;
+	}
+
+	// the magnitude of x, which must be less than n, as exactly k words
+	private int[] toWords(LargeInteger x)
+	{
+		int[] words = new int[k];
+		int[] m = x.magnitude();
+		System.arraycopy(m, 0, words, 0, Math.min(m.length, k));
+		return words;
+	}
+
+	// wrap k words up as a positive LargeInteger
+	private LargeInteger toLargeInteger(int[] words)
+	{
+		return new LargeInteger(words, false);
+	}
+
+	// Montgomery product a * b * R^-1 mod n of two k word numbers less than n, in a new array
+	private int[] mul(int[] a, int[] b)
+	{
+		int[] result = new int[k];
+		mul(a, b, new int[k + 1], result);
+		return result;
+	}
+
+	// Montgomery product a * b * R^-1 mod n of two k word numbers less than n, written into result
+	// t is at least k + 1 words of scratch, and result can be a or b since they are only read before result is written
+	// uses the coarsely integrated operand scanning method, with the product row and the reduction row
+	// fused into one pass over t so each word of t is only loaded and stored once per row
+	private void mul(int[] a, int[] b, int[] t, int[] result)
+	{
+		// local copies, so the loops below do not reload the fields
+		int k = this.k;
+		int[] mod = this.mod;
+		long b0 = b[0] & LONG_MASK;
+		long n0 = mod[0] & LONG_MASK;
+
+		// t holds k words plus a word of carry, starting from 0
+		Arrays.fill(t, 0, k + 1, 0);
+		for(int i = 0; i < k; i++)
+		{
+			// the lowest word of t + a[i] * b picks m, so that adding m * n makes that word 0
+			long ai = a[i] & LONG_MASK;
+			long product = (t[0] & LONG_MASK) + ai * b0;
+			long m = ((int) product * nPrime) & LONG_MASK;
+			long carry = product >>> 32;
+			long reduceCarry = ((product & LONG_MASK) + m * n0) >>> 32;
+
+			// t = (t + a[i] * b + m * n) / 2^32, one word at a time with a carry for each half
+			for(int j = 1; j < k; j++)
+			{
+				carry += (t[j] & LONG_MASK) + ai * (b[j] & LONG_MASK);
+				reduceCarry += (carry & LONG_MASK) + m * (mod[j] & LONG_MASK);
+				t[j - 1] = (int) reduceCarry;
+				carry >>>= 32;
+				reduceCarry >>>= 32;
+			}
+			carry += (t[k] & LONG_MASK) + reduceCarry;
+			t[k - 1] = (int) carry;
+			t[k] = (int) (carry >>> 32);
+		}
+
+		// t is now less than 2n, take n away once if it is not less than n
+		System.arraycopy(t, 0, result, 0, k);
+		if(t[k] != 0 || !lessThanMod(result))
+		{
+			long borrow = 0;
+			for(int j = 0; j < k; j++)
+			{
+				borrow = (result[j] & LONG_MASK) - (mod[j] & LONG_MASK) + borrow;
+				result[j] = (int) borrow;
+				borrow >>= 32;
+			}
+		}
+	}
+
+	// Montgomery square a * a * R^-1 mod n of a k word number less than n, written into result
+	// t is 2k + 1 words of scratch, and result can be a
+	// the full square is found first, finding each cross product once, and then reduced a word at a time,
+	// which takes about 3/4 of the word multiplies of mul(a, a, t, result)
+	private void square(int[] a, int[] t, int[] result)
+	{
+		int k = this.k;
+		int[] mod = this.mod;
+
+		// t = a * a in 2k words, with one more word for the carry out of the reduction
+		LargeInteger.squareWords(a, k, t);
+		t[2 * k] = 0;
+
+		// add m * n at word i for each i, where m is chosen so that word i becomes 0
+		// two rows are done in each pass over t, so each word is loaded and stored once for every two multiplies
+		// the carry out of the top word of a pass is held back and added in by the next pass
+		long n0 = mod[0] & LONG_MASK;
+		long overflow = 0;
+		int i = 0;
+		for(; i + 1 < k; i += 2)
+		{
+			// m1 clears word i, and m2 clears word i + 1 once m1 * n has been added
+			long m1 = (t[i] * nPrime) & LONG_MASK;
+			long carry = ((t[i] & LONG_MASK) + m1 * n0) >>> 32;
+			carry += (t[i + 1] & LONG_MASK) + m1 * (mod[1] & LONG_MASK);
+			long m2 = ((int) carry * nPrime) & LONG_MASK;
+			long reduceCarry = ((carry & LONG_MASK) + m2 * n0) >>> 32;
+			carry >>>= 32;
+
+			// t = t + m1 * n * 2^(32 * i) + m2 * n * 2^(32 * (i + 1)), a word at a time
+			for(int j = 2; j < k; j++)
+			{
+				carry += (t[i + j] & LONG_MASK) + m1 * (mod[j] & LONG_MASK);
+				reduceCarry += (carry & LONG_MASK) + m2 * (mod[j - 1] & LONG_MASK);
+				t[i + j] = (int) reduceCarry;
+				carry >>>= 32;
+				reduceCarry >>>= 32;
+			}
+			carry += (t[i + k] & LONG_MASK) + overflow;
+			reduceCarry += (carry & LONG_MASK) + m2 * (mod[k - 1] & LONG_MASK);
+			t[i + k] = (int) reduceCarry;
+			carry = (carry >>> 32) + (reduceCarry >>> 32) + (t[i + k + 1] & LONG_MASK);
+			t[i + k + 1] = (int) carry;
+			overflow = carry >>> 32;
+		}
+		// with an odd number of words the last row is done on its own
+		if(i < k)
+		{
+			long m = (t[i] * nPrime) & LONG_MASK;
+			long carry = 0;
+			for(int j = 0; j < k; j++)
+			{
+				carry += (t[i + j] & LONG_MASK) + m * (mod[j] & LONG_MASK);
+				t[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+			carry += (t[i + k] & LONG_MASK) + overflow;
+			t[i + k] = (int) carry;
+			overflow = carry >>> 32;
+		}
+		t[2 * k] += (int) overflow;
+
+		// the low k words are all 0 now, so the top k words are t / R, which is less than 2n
+		System.arraycopy(t, k, result, 0, k);
+		if(t[2 * k] != 0 || !lessThanMod(result))
+		{
+			long borrow = 0;
+			for(int j = 0; j < k; j++)
+			{
+				borrow = (result[j] & LONG_MASK) - (mod[j] & LONG_MASK) + borrow;
+				result[j] = (int) borrow;
+				borrow >>= 32;
+			}
+		}
+	}
+
+	// true if the k word number x is less than n
+	private boolean lessThanMod(int[] x)
+	{
+		for(int i = k - 1; i >= 0; i--)
+		{
+			if(x[i] != mod[i])
+			{
+				return (x[i] & LONG_MASK) < (mod[i] & LONG_MASK);
+			}
+		}
+		return false;
+	}
+}
\ No newline at end of file
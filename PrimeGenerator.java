@@ -0,0 +1,310 @@
+import java.util.Random;
+
+/**
+ * Probable prime generation on LargeInteger's own arithmetic.
+ * Candidates are taken from a window of odd numbers after a random start, the
+ * window is sieved against a table of small primes, and only the survivors get
+ * Miller-Rabin tests, which run on a MontgomeryContext for the candidate.
+ */
+public class PrimeGenerator
+{
+	// number of small primes candidates are sieved against
+	private static final int SMALL_PRIME_COUNT = 2048;
+
+	// the first SMALL_PRIME_COUNT odd primes, 3, 5, 7, ...
+	static final int[] SMALL_PRIMES = smallPrimes(SMALL_PRIME_COUNT);
+
+	/**
+	 * Generate a random bits-bit probable prime with the default number of
+	 * Miller-Rabin rounds, enough for a 2^-100 chance of being composite
+	 * @param bits the bitlength of the requested prime, at least 2
+	 * @param rnd source of randomness, such as a java.security.SecureRandom
+	 * @return a probable prime with exactly bits bits
+	 */
+	public static LargeInteger probablePrime(int bits, Random rnd)
+	{
+		return probablePrime(bits, rnd, defaultRounds(bits));
+	}
+
+	/**
+	 * Generate a random bits-bit probable prime
+	 * @param bits the bitlength of the requested prime, at least 2
+	 * @param rnd source of randomness, such as a java.security.SecureRandom
+	 * @param rounds number of Miller-Rabin rounds each candidate must pass
+	 * @return a probable prime with exactly bits bits
+	 */
+	public static LargeInteger probablePrime(int bits, Random rnd, int rounds)
+	{
+		return probablePrime(bits, rnd, rounds, false);
+	}
+
+	/**
+	 * Generate a random bits-bit probable prime, optionally with its top two bits set
+	 * Two primes with their top two bits set always have a product with exactly as many
+	 * bits as the two of them together, which is what an RSA modulus needs
+	 * @param bits the bitlength of the requested prime, at least 2
+	 * @param rnd source of randomness, such as a java.security.SecureRandom
+	 * @param rounds number of Miller-Rabin rounds each candidate must pass
+	 * @param topTwoBits true to only look at candidates of at least 3 * 2^(bits - 2)
+	 * @return a probable prime with exactly bits bits, and the second highest bit set as well if topTwoBits is true
+	 */
+	public static LargeInteger probablePrime(int bits, Random rnd, int rounds, boolean topTwoBits)
+	{
+		if(bits < 2)
+		{
+			throw new IllegalArgumentException("A prime needs at least 2 bits.");
+		}
+
+		// number of odd candidates sieved at a time, a few times the average gap between primes of this size, in whole words of the bitmap
+		int window = (Math.max(64, bits) + 63) & ~63;
+		int sieveCount = sieveCount(bits);
+
+		while(true)
+		{
+			// random odd start with the top bit set
+			LargeInteger start = randomOdd(bits, rnd, topTwoBits);
+
+			// start mod each small prime, found once and then moved along with the window
+			int[] residues = new int[sieveCount];
+			for(int i = 0; i < sieveCount; i++)
+			{
+				residues[i] = start.modInt(SMALL_PRIMES[i]);
+			}
+
+			// keep sliding the window forward until the candidates grow past bits bits
+			while(start.bitLength() == bits)
+			{
+				// bit i is set when start + 2i has a small factor
+				long[] composite = new long[window >>> 6];
+				sieve(residues, sieveCount, composite);
+
+				// run Miller-Rabin on whatever the sieve left, in order
+				for(int i = nextCandidate(composite, 0); i < window; i = nextCandidate(composite, i + 1))
+				{
+					LargeInteger candidate = start.add(LargeInteger.valueOf(2L * i));
+					if(candidate.bitLength() != bits)
+					{
+						break;
+					}
+					if(isProbablePrime(candidate, rnd, rounds))
+					{
+						return candidate;
+					}
+				}
+
+				// move to the next window
+				start = start.add(LargeInteger.valueOf(2L * window));
+				for(int i = 0; i < sieveCount; i++)
+				{
+					residues[i] = (int) ((residues[i] + 2L * window) % SMALL_PRIMES[i]);
+				}
+			}
+		}
+	}
+
+	// number of small primes to sieve bits-bit candidates with
+	// only primes smaller than every candidate can rule one out, a candidate that is itself a small prime must not be crossed off
+	static int sieveCount(int bits)
+	{
+		int count = 0;
+		while(count < SMALL_PRIMES.length && (bits > 31 || SMALL_PRIMES[count] < (1 << (bits - 1))))
+		{
+			count++;
+		}
+		return count;
+	}
+
+	// set bit i of composite for every odd candidate first + 2i with a factor among the first count small primes
+	// residues[j] is first mod SMALL_PRIMES[j]
+	static void sieve(int[] residues, int count, long[] composite)
+	{
+		int candidates = composite.length << 6;
+		for(int j = 0; j < count; j++)
+		{
+			int p = SMALL_PRIMES[j];
+			// first i with first + 2i = 0 mod p, 2i = -residue mod p, and 2^-1 mod p is (p + 1) / 2
+			int i = (int) ((long) (p - residues[j]) % p * ((p + 1) / 2) % p);
+			for(; i < candidates; i += p)
+			{
+				// the shift only uses the low 6 bits of i, which is the bit within the word
+				composite[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
+	// index of the first candidate from i on that the sieve left, or the number of candidates if there is none
+	static int nextCandidate(long[] composite, int i)
+	{
+		int word = i >>> 6;
+		if(word >= composite.length)
+		{
+			return composite.length << 6;
+		}
+		// skip a whole word of crossed off candidates at a time
+		long left = ~composite[word] & (-1L << i);
+		while(left == 0)
+		{
+			if(++word == composite.length)
+			{
+				return composite.length << 6;
+			}
+			left = ~composite[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(left);
+	}
+
+	/**
+	 * Run the Miller-Rabin test on n with random bases
+	 * @param n the number to test
+	 * @param rnd source of randomness for picking the bases
+	 * @param rounds number of bases to try, each one a composite passes has at most a 1/4 chance
+	 * @return false if n is definitely composite, true if n is probably prime
+	 */
+	public static boolean isProbablePrime(LargeInteger n, Random rnd, int rounds)
+	{
+		// 2 and 3 are prime, anything else that is even or below 2 is not
+		if(n.isNegative() || n.bitLength() < 2)
+		{
+			return false;
+		}
+		if(n.bitLength() == 2)
+		{
+			return true;
+		}
+		if(!n.getLSB())
+		{
+			return false;
+		}
+
+		// n - 1 = d * 2^s with d odd
+		LargeInteger nMinusOne = n.subtract(LargeInteger.valueOf(1));
+		int s = 0;
+		while(!LargeInteger.testBit(nMinusOne.magnitude(), s))
+		{
+			s++;
+		}
+		LargeInteger d = LargeInteger.shiftRight(nMinusOne, s);
+
+		// every exponentiation and squaring below is done mod n
+		MontgomeryContext context = new MontgomeryContext(n);
+		LargeInteger minusOne = context.toMontgomery(nMinusOne);
+		LargeInteger two = LargeInteger.valueOf(2);
+
+		for(int round = 0; round < rounds; round++)
+		{
+			// random base from 2 to n - 2
+			LargeInteger a;
+			do
+			{
+				a = randomBits(n.bitLength(), rnd);
+			}
+			while(a.lessThan(two) || !a.lessThan(nMinusOne));
+
+			// a^d must be 1 or -1, or reach -1 within s - 1 squarings
+			LargeInteger x = context.modularExp(a, d);
+			if(x.isOne() || x.equals(nMinusOne))
+			{
+				continue;
+			}
+			x = context.toMontgomery(x);
+			boolean reachedMinusOne = false;
+			for(int i = 1; i < s && !reachedMinusOne; i++)
+			{
+				x = context.montSquare(x);
+				reachedMinusOne = x.equals(minusOne);
+			}
+			if(!reachedMinusOne)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Miller-Rabin rounds for a 2^-100 chance that a random bits-bit candidate is composite
+	// bigger random candidates are much less likely to fool a round, so they need fewer
+	static int defaultRounds(int bits)
+	{
+		if(bits < 100)
+		{
+			return 50;
+		}
+		else if(bits < 256)
+		{
+			return 27;
+		}
+		else if(bits < 512)
+		{
+			return 15;
+		}
+		else if(bits < 768)
+		{
+			return 8;
+		}
+		else if(bits < 1024)
+		{
+			return 4;
+		}
+		return 3;
+	}
+
+	// random number with at most bits bits
+	static LargeInteger randomBits(int bits, Random rnd)
+	{
+		int[] words = new int[(bits + 31) / 32];
+		for(int i = 0; i < words.length; i++)
+		{
+			words[i] = rnd.nextInt();
+		}
+		// clear everything above the top bit
+		int extra = words.length * 32 - bits;
+		words[words.length - 1] &= -1 >>> extra;
+		return new LargeInteger(words, false);
+	}
+
+	// random odd number with exactly bits bits
+	static LargeInteger randomOdd(int bits, Random rnd)
+	{
+		return randomOdd(bits, rnd, false);
+	}
+
+	// random odd number with exactly bits bits, and with the bit below the top bit set too if topTwoBits is true
+	// the window only moves up from it, so every candidate after it keeps both bits set until it runs past bits bits
+	static LargeInteger randomOdd(int bits, Random rnd, boolean topTwoBits)
+	{
+		int[] words = randomBits(bits, rnd).magnitude();
+		int[] full = new int[(bits + 31) / 32];
+		System.arraycopy(words, 0, full, 0, words.length);
+		// set the top bit and the bottom bit
+		full[(bits - 1) >>> 5] |= 1 << ((bits - 1) & 31);
+		full[0] |= 1;
+		if(topTwoBits)
+		{
+			full[(bits - 2) >>> 5] |= 1 << ((bits - 2) & 31);
+		}
+		return new LargeInteger(full, false);
+	}
+
+	// the first count odd primes, found with a sieve of Eratosthenes
+	private static int[] smallPrimes(int count)
+	{
+		// the 2048th odd prime is under 18000
+		int limit = 18000;
+		boolean[] composite = new boolean[limit];
+		int[] primes = new int[count];
+		int found = 0;
+		for(int i = 3; i < limit && found < count; i += 2)
+		{
+			if(composite[i])
+			{
+				continue;
+			}
+			primes[found++] = i;
+			for(long j = (long) i * i; j < limit; j += 2 * i)
+			{
+				composite[(int) j] = true;
+			}
+		}
+		return primes;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * An endless supply of bits-bit probable primes, for when many are needed at once.
+ * Instead of starting from a new random point for every prime like probablePrime,
+ * the stream picks one random odd start and walks up the odd numbers after it in
+ * segments. Each segment is sieved against the small primes in a bitmap, one bit per
+ * candidate, and only the candidates left get Miller-Rabin tests, so the cost of
+ * the random start and the small prime residues is paid once for the whole stream.
+ * With more than one thread, the segments ahead are sieved and tested on the common
+ * ForkJoinPool while the caller takes the primes from the ones already done.
+ * The primes come out in increasing order, so none is repeated, and the stream only
+ * ends if it runs past the largest bits-bit number, which at any size used for keys
+ * will not happen.
+ */
+public class PrimeStream implements Iterator<LargeInteger>
+{
+	// size of the primes
+	private final int bits;
+
+	// source of the Miller-Rabin bases, shared by every thread
+	private final Random rnd;
+
+	// Miller-Rabin rounds each candidate must pass
+	private final int rounds;
+
+	// number of segments worked on at once, 1 tests them one candidate at a time on the caller's thread
+	private final int parallelism;
+
+	// odd candidates in a segment, always a whole number of 64 bit words of the bitmap
+	private final int segmentCandidates;
+
+	// random odd number the first segment starts at
+	private final LargeInteger start;
+
+	// number of small primes the segments are sieved with, and start mod each of them
+	private final int sieveCount;
+	private final int[] startResidues;
+
+	// index of the next segment to start on, segment i starts at start + 2 * i * segmentCandidates
+	private long nextSegment;
+
+	// true once a segment would start past bits bits, so there are no more to start
+	private boolean exhausted;
+
+	// the segment being tested on the caller's thread, only used when parallelism is 1
+	private Segment current;
+
+	// the segments being worked on by the pool, oldest first, only used when parallelism is more than 1
+	private final ArrayDeque<ForkJoinTask<LargeInteger[]>> pending = new ArrayDeque<ForkJoinTask<LargeInteger[]>>();
+
+	// the primes of the oldest finished segment, and the next one of them to hand out
+	private LargeInteger[] found = new LargeInteger[0];
+	private int foundIndex;
+
+	// the prime hasNext found for next to return, null if there is none waiting
+	private LargeInteger upcoming;
+
+	/**
+	 * Start a stream of bits-bit probable primes with the default number of Miller-Rabin
+	 * rounds, sieving a segment on each core
+	 * @param bits the bitlength of the primes, at least 2
+	 * @param rnd source of randomness, which must be safe to share between threads like Random and SecureRandom are
+	 */
+	public PrimeStream(int bits, Random rnd)
+	{
+		this(bits, rnd, PrimeGenerator.defaultRounds(bits), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Start a stream of bits-bit probable primes
+	 * @param bits the bitlength of the primes, at least 2
+	 * @param rnd source of randomness, which must be safe to share between threads like Random and SecureRandom are
+	 * @param rounds number of Miller-Rabin rounds each prime must pass
+	 * @param parallelism number of segments to work on at once, 1 does all the work on the thread that asks for the primes
+	 */
+	public PrimeStream(int bits, Random rnd, int rounds, int parallelism)
+	{
+		if(bits < 2)
+		{
+			throw new IllegalArgumentException("A prime needs at least 2 bits.");
+		}
+		if(parallelism < 1)
+		{
+			throw new IllegalArgumentException("Parallelism must be at least 1.");
+		}
+		this.bits = bits;
+		this.rnd = rnd;
+		this.rounds = rounds;
+		this.parallelism = parallelism;
+
+		// twice the window probablePrime uses, so a segment holds a couple of dozen primes of any size
+		this.segmentCandidates = (Math.max(64, 2 * bits) + 63) & ~63;
+
+		// the only residues ever found by division, every segment's are worked out from these
+		this.start = PrimeGenerator.randomOdd(bits, rnd);
+		this.sieveCount = PrimeGenerator.sieveCount(bits);
+		this.startResidues = new int[sieveCount];
+		for(int i = 0; i < sieveCount; i++)
+		{
+			startResidues[i] = start.modInt(PrimeGenerator.SMALL_PRIMES[i]);
+		}
+	}
+
+	/**
+	 * Find out if there is another prime, which can mean waiting for it to be found
+	 * @return false only once the stream has run past the largest bits-bit number
+	 */
+	public boolean hasNext()
+	{
+		if(upcoming == null)
+		{
+			upcoming = advance();
+		}
+		return upcoming != null;
+	}
+
+	/**
+	 * Return the next prime, the smallest one after the last prime returned
+	 * @return a probable prime with exactly bits bits
+	 */
+	public LargeInteger next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException("No bits-bit numbers are left to test.");
+		}
+		LargeInteger prime = upcoming;
+		upcoming = null;
+		return prime;
+	}
+
+	// find the next prime, or null if the stream has ended
+	private LargeInteger advance()
+	{
+		// on one thread, test the current segment's candidates one at a time, so nothing past the prime returned is tested
+		if(parallelism == 1)
+		{
+			while(true)
+			{
+				LargeInteger prime = current == null ? null : current.nextPrime();
+				if(prime != null)
+				{
+					return prime;
+				}
+				LargeInteger first = startNextSegment();
+				if(first == null)
+				{
+					return null;
+				}
+				current = new Segment(nextSegment - 1, first);
+			}
+		}
+
+		while(foundIndex == found.length)
+		{
+			// keep parallelism segments going, so there are always more being worked on while the caller uses these
+			while(pending.size() < parallelism)
+			{
+				LargeInteger first = startNextSegment();
+				if(first == null)
+				{
+					break;
+				}
+				long index = nextSegment - 1;
+				// fork outside a pool runs on the common pool, the same as the parallel products in LargeInteger
+				pending.add(ForkJoinTask.adapt(() -> new Segment(index, first).primes()).fork());
+			}
+			if(pending.isEmpty())
+			{
+				return null;
+			}
+			// the oldest segment holds the smallest primes, so wait for it first to keep them in order
+			found = pending.poll().join();
+			foundIndex = 0;
+		}
+		return found[foundIndex++];
+	}
+
+	// the first candidate of the next segment, moving on to the one after it, or null if it has more than bits bits
+	private LargeInteger startNextSegment()
+	{
+		if(exhausted)
+		{
+			return null;
+		}
+		LargeInteger first = start.add(LargeInteger.valueOf(2L * segmentCandidates * nextSegment));
+		if(first.bitLength() != bits)
+		{
+			exhausted = true;
+			return null;
+		}
+		nextSegment++;
+		return first;
+	}
+
+	// one segment of odd candidates, sieved as soon as it is made and then tested in order
+	private class Segment
+	{
+		// first candidate, the others are the odd numbers after it
+		private final LargeInteger first;
+
+		// bit i is set when first + 2i has a small factor
+		private final long[] composite;
+
+		// index of the next candidate to look at
+		private int position;
+
+		Segment(long index, LargeInteger first)
+		{
+			this.first = first;
+			this.composite = new long[segmentCandidates >>> 6];
+
+			// first is start + 2 * index * segmentCandidates, so its residues follow from start's without dividing first
+			int[] residues = new int[sieveCount];
+			for(int i = 0; i < sieveCount; i++)
+			{
+				int p = PrimeGenerator.SMALL_PRIMES[i];
+				long step = 2L * segmentCandidates % p;
+				residues[i] = (int) ((startResidues[i] + step * (index % p)) % p);
+			}
+			PrimeGenerator.sieve(residues, sieveCount, composite);
+		}
+
+		// the next prime in the segment, or null once every candidate has been looked at
+		LargeInteger nextPrime()
+		{
+			for(int i = PrimeGenerator.nextCandidate(composite, position); i < segmentCandidates; i = PrimeGenerator.nextCandidate(composite, i + 1))
+			{
+				LargeInteger candidate = first.add(LargeInteger.valueOf(2L * i));
+				// the segment can run past bits bits, and then nothing after it can be used either
+				if(candidate.bitLength() != bits)
+				{
+					break;
+				}
+				if(PrimeGenerator.isProbablePrime(candidate, rnd, rounds))
+				{
+					position = i + 1;
+					return candidate;
+				}
+			}
+			position = segmentCandidates;
+			return null;
+		}
+
+		// every prime in the segment, in order
+		LargeInteger[] primes()
+		{
+			ArrayList<LargeInteger> primes = new ArrayList<LargeInteger>();
+			LargeInteger prime;
+			while((prime = nextPrime()) != null)
+			{
+				primes.add(prime);
+			}
+			return primes.toArray(new LargeInteger[primes.size()]);
+		}
+	}
+}
\ No newline at end of file
@@ -1,92 +1,144 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.util.Random;
-
-
-public class RsaKeyGen
-{
-    public RsaKeyGen()
-    {
-        // create a new random to fo large int
-        Random random = new Random();
-        // p and q will take the random and create new primes to be used in the rest of the calculations
-        // p and q are 256 bit large ints
-        LargeInteger p = new LargeInteger(256, random);
-        LargeInteger q = new LargeInteger(256, random);
-        // one_ is the byte array holding 00000001 for the one large int
-        byte[] one_ = {(byte) 0x01};
-        // large int that only holds value 00000001
-        LargeInteger one = new LargeInteger(one_);
-        // n = p * q
-        LargeInteger n = p.multiply(q);
-        // phiN = (p-1)*(q-1)
-        LargeInteger phiN = p.subtract(one).multiply(q.subtract(one));
-        // e starts as a 512 bit random prime large int
-        LargeInteger e = new LargeInteger(512, random);
-        // count of the number of iterations it takes to find an e value that works
-        int count = 0;
-        // start the current bit size for e at 512
-        int curBitSize = 512;
-
-        // while not 1 < e < phiN and gcd(e, phiN) != 1
-        while(!(one.lessThan(e) && e.lessThan(phiN) && e.XGCD(phiN)[0].isOne()))
-        {
-            // create a new random prime e with curBitSize bit size
-            e = new LargeInteger(curBitSize, random);
-            // incriment count
-            count++;
-
-            // if count exceeds 50 iterations
-            if(count > 50)
-            {
-                // decriment curBitSize
-                curBitSize -= 1;
-                // set count back to 0
-                count = 0;
-            }
-        }
-
-        // after the while loop ends, find xgcd(e, phiN) again and save it
-        LargeInteger[] XGCDResult = e.XGCD(phiN);
-        // set d to be the s value from xgcd
-        LargeInteger d = XGCDResult[1];
-        if(d.isNegative())
-        {
-            d = d.add(phiN);
-        }
-
-        // try catch block to make sure that no exceptions go unchecked
-        try
-        {
-            // printwriter that will write the public key to file pubkey.rsa
-            PrintWriter writer = new PrintWriter(new File("pubkey.rsa"));
-            // write e to pubkey.rsa
-            writer.println(e.toStringWithoutSpace());
-            // write n to pubkey.rsa
-            writer.println(n.toStringWithoutSpace());
-            // close writer so no issues arise
-            writer.close();
-
-            // printwriter again, this time writing private key information to privkey.rsa
-            writer = new PrintWriter(new File("privkey.rsa"));
-            // write d to privkey.rsa
-            writer.println(d.toStringWithoutSpace());
-            // write n to privkey.rsa
-            writer.println(n.toStringWithoutSpace());
-            // close writer so no issues arise
-            writer.close();
-        }
-        // if an exception is found throw a new FileNotFoundException
-        catch(FileNotFoundException err)
-        {
-            // printt the stack trace for the FileNotFoundException
-            err.printStackTrace();
-        }
-    }
-
-    public static void main(String args[])
-    {
-        new RsaKeyGen();
-    }
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+
+public class RsaKeyGen
+{
+    // size of n in bits when no --bits option is given
+    public static final int DEFAULT_BITS = 512;
+
+    // public exponent when no --e option is given, 2^16 + 1
+    public static final long DEFAULT_E = 65537;
+
+    public RsaKeyGen()
+    {
+        this(DEFAULT_BITS, LargeInteger.valueOf(DEFAULT_E));
+    }
+
+    // generate a key pair where n has the given number of bits and the public exponent is e
+    public RsaKeyGen(int bits, LargeInteger e)
+    {
+        // create a new secure random to generate the large ints from
+        RsaPrivateKey key = generateKey(bits, e, new SecureRandom());
+
+        // try catch block to make sure that no exceptions go unchecked
+        try
+        {
+            // write e and n to pubkey.rsa
+            LargeIntegerFile.write("pubkey.rsa", e, key.getN());
+            // write d, n, p, q, dP, dQ and qInv to privkey.rsa
+            LargeIntegerFile.write("privkey.rsa", key.getD(), key.getN(), key.getP(), key.getQ(), key.getDP(), key.getDQ(), key.getQInv());
+        }
+        // if the files can not be written, print the stack trace
+        catch(IOException err)
+        {
+            err.printStackTrace();
+        }
+    }
+
+    // generate the private key for a key pair where n has the given number of bits and the public exponent is e
+    // nothing is written to a file, so this can also be used to make keys in memory
+    public static RsaPrivateKey generateKey(int bits, LargeInteger e, Random random)
+    {
+        // one_ is the byte array holding 00000001 for the one large int
+        byte[] one_ = {(byte) 0x01};
+        // large int that only holds value 00000001
+        LargeInteger one = new LargeInteger(one_);
+
+        LargeInteger p;
+        LargeInteger q;
+        LargeInteger n;
+        // p and q are each half the size of n, generated at the same time on separate threads
+        // both have their top two bits set, so p * q is at least 9/8 * 2^(bits - 1) and always has exactly bits bits
+        // if they match, try again
+        do
+        {
+            CompletableFuture<LargeInteger> pTask = CompletableFuture.supplyAsync(() -> generatePrime(bits / 2, e, random));
+            CompletableFuture<LargeInteger> qTask = CompletableFuture.supplyAsync(() -> generatePrime(bits - bits / 2, e, random));
+            p = pTask.join();
+            q = qTask.join();
+            // n = p * q
+            n = p.multiply(q);
+        }
+        while(p.equals(q));
+
+        // phiN = (p-1)*(q-1)
+        LargeInteger phiN = p.subtract(one).multiply(q.subtract(one));
+
+        // e shares no factor with p-1 or q-1, so it has an inverse d = e^-1 mod phiN
+        LargeInteger d = e.modInverse(phiN);
+
+        // values for signing with the chinese remainder theorem
+        // dP = d mod (p-1), dQ = d mod (q-1)
+        LargeInteger dP = d.modulus(p.subtract(one));
+        LargeInteger dQ = d.modulus(q.subtract(one));
+        // qInv = q^-1 mod p
+        LargeInteger qInv = q.modInverse(p);
+
+        return new RsaPrivateKey(d, n, p, q, dP, dQ, qInv);
+    }
+
+    // random prime with the given number of bits and its top two bits set, where p-1 shares no factor with e
+    // e is small, so the gcd is only one short division and a few single word steps
+    private static LargeInteger generatePrime(int bits, LargeInteger e, Random random)
+    {
+        LargeInteger one = LargeInteger.valueOf(1);
+        while(true)
+        {
+            LargeInteger p = PrimeGenerator.probablePrime(bits, random, PrimeGenerator.defaultRounds(bits), true);
+            if(e.XGCD(p.subtract(one))[0].isOne())
+            {
+                return p;
+            }
+        }
+    }
+
+    public static void main(String args[])
+    {
+        int bits = DEFAULT_BITS;
+        long e = DEFAULT_E;
+
+        // options are --bits <size of n> and --e <public exponent>
+        try
+        {
+            for(int i = 0; i < args.length; i++)
+            {
+                if(args[i].equals("--bits") && i + 1 < args.length)
+                {
+                    bits = Integer.parseInt(args[++i]);
+                }
+                else if(args[i].equals("--e") && i + 1 < args.length)
+                {
+                    e = Long.parseLong(args[++i]);
+                }
+                else
+                {
+                    System.out.println("Usage: java RsaKeyGen [--bits 2048|3072|4096] [--e 65537]");
+                    return;
+                }
+            }
+        }
+        catch(NumberFormatException err)
+        {
+            System.out.println("Usage: java RsaKeyGen [--bits 2048|3072|4096] [--e 65537]");
+            return;
+        }
+
+        // n needs room for p and q of at least 32 bits each
+        if(bits < 64)
+        {
+            System.out.println("The key size must be at least 64 bits.");
+            return;
+        }
+        // e must be odd to share no factor with the even numbers p-1 and q-1
+        if(e < 3 || e % 2 == 0)
+        {
+            System.out.println("The public exponent must be odd and at least 3.");
+            return;
+        }
+
+        new RsaKeyGen(bits, LargeInteger.valueOf(e));
+    }
 }
\ No newline at end of file
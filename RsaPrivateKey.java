@@ -0,0 +1,150 @@
+/**
+ * An RSA private key, d and n, and optionally the values needed to sign with
+ * the Chinese remainder theorem: the primes p and q, dP = d mod (p-1),
+ * dQ = d mod (q-1) and qInv = q^-1 mod p. The Montgomery contexts for the
+ * moduli and the windows of the exponents are worked out once here, so signing
+ * many hashes with one key only pays for them once. A key with the chinese
+ * remainder theorem values never signs mod n, so it skips the context for n
+ * until something asks for it and never works out the windows of d.
+ */
+public class RsaPrivateKey
+{
+    // private exponent and modulus
+    private final LargeInteger d;
+    private final LargeInteger n;
+    // the context for n is only made up front when signing needs it, otherwise on the first getNContext
+    private volatile MontgomeryContext nContext;
+    // windows of d, null for a key with the chinese remainder theorem values
+    private final ExponentWindows dWindows;
+
+    // chinese remainder theorem values, all null for a key that only has d and n
+    private final LargeInteger p;
+    private final LargeInteger q;
+    private final LargeInteger dP;
+    private final LargeInteger dQ;
+    private final LargeInteger qInv;
+    private final MontgomeryContext pContext;
+    private final MontgomeryContext qContext;
+    private final ExponentWindows dPWindows;
+    private final ExponentWindows dQWindows;
+
+    // reduces mod p in normal form, for the recombination step
+    private final BarrettContext pReducer;
+
+    // key with only d and n, signing uses the full modulus
+    public RsaPrivateKey(LargeInteger d, LargeInteger n)
+    {
+        this.d = d;
+        this.n = n;
+        this.nContext = new MontgomeryContext(n);
+        this.dWindows = new ExponentWindows(d);
+        this.p = null;
+        this.q = null;
+        this.dP = null;
+        this.dQ = null;
+        this.qInv = null;
+        this.pContext = null;
+        this.qContext = null;
+        this.dPWindows = null;
+        this.dQWindows = null;
+        this.pReducer = null;
+    }
+
+    // key with the chinese remainder theorem values, signing does two half size exponentiations
+    public RsaPrivateKey(LargeInteger d, LargeInteger n, LargeInteger p, LargeInteger q, LargeInteger dP, LargeInteger dQ, LargeInteger qInv)
+    {
+        this.d = d;
+        this.n = n;
+        this.nContext = null;
+        this.dWindows = null;
+        this.p = p;
+        this.q = q;
+        this.dP = dP;
+        this.dQ = dQ;
+        this.qInv = qInv;
+        this.pContext = new MontgomeryContext(p);
+        this.qContext = new MontgomeryContext(q);
+        this.dPWindows = new ExponentWindows(dP);
+        this.dQWindows = new ExponentWindows(dQ);
+        this.pReducer = new BarrettContext(p);
+    }
+
+    public LargeInteger getD()
+    {
+        return d;
+    }
+
+    public LargeInteger getN()
+    {
+        return n;
+    }
+
+    // the montgomery context for n
+    public MontgomeryContext getNContext()
+    {
+        MontgomeryContext context = nContext;
+        if(context == null)
+        {
+            // two threads can both make one, they are the same so it does not matter which is kept
+            context = new MontgomeryContext(n);
+            nContext = context;
+        }
+        return context;
+    }
+
+    // true if this key has p, q, dP, dQ and qInv
+    public boolean hasCrt()
+    {
+        return p != null;
+    }
+
+    public LargeInteger getP()
+    {
+        return p;
+    }
+
+    public LargeInteger getQ()
+    {
+        return q;
+    }
+
+    public LargeInteger getDP()
+    {
+        return dP;
+    }
+
+    public LargeInteger getDQ()
+    {
+        return dQ;
+    }
+
+    public LargeInteger getQInv()
+    {
+        return qInv;
+    }
+
+    // compute hash^d mod n, the raw signature of hash
+    public LargeInteger sign(LargeInteger hash)
+    {
+        // without p and q, do the whole exponentiation mod n
+        if(!hasCrt())
+        {
+            return nContext.modularExp(hash, dWindows);
+        }
+
+        // m1 = hash^dP mod p and m2 = hash^dQ mod q, each half the size of n
+        LargeInteger m1 = pContext.modularExp(hash, dPWindows);
+        LargeInteger m2 = qContext.modularExp(hash, dQWindows);
+
+        // Garner's recombination, h = qInv * (m1 - m2) mod p
+        LargeInteger difference = m1.subtract(m2);
+        if(difference.isNegative())
+        {
+            difference = difference.add(p);
+        }
+        LargeInteger h = pReducer.modMul(qInv, difference);
+
+        // hash^d mod n = m2 + h * q
+        return m2.add(h.multiply(q));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+/**
+ * An RSA public key, e and n. The Montgomery context for n and the windows of e
+ * are worked out once here, so verifying many signatures with one key only pays
+ * for them once.
+ */
+public class RsaPublicKey
+{
+    // public exponent and modulus
+    private final LargeInteger e;
+    private final LargeInteger n;
+    private final MontgomeryContext nContext;
+
+    // e recoded for sliding window exponentiation
+    private final ExponentWindows eWindows;
+
+    public RsaPublicKey(LargeInteger e, LargeInteger n)
+    {
+        this.e = e;
+        this.n = n;
+        this.nContext = new MontgomeryContext(n);
+        this.eWindows = new ExponentWindows(e);
+    }
+
+    public LargeInteger getE()
+    {
+        return e;
+    }
+
+    public LargeInteger getN()
+    {
+        return n;
+    }
+
+    // the montgomery context for n
+    public MontgomeryContext getNContext()
+    {
+        return nContext;
+    }
+
+    // compute signature^e mod n, the hash the signature was made from
+    public LargeInteger verify(LargeInteger signature)
+    {
+        return nContext.modularExp(signature, eWindows);
+    }
+}
\ No newline at end of file
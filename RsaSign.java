@@ -1,239 +1,712 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.math.BigInteger;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.util.Scanner;
-
-public class RsaSign
-{
-    public RsaSign(String signVerify, String filename)
-    {
-        // privScan is a scanner for the privkey.rsa file
-        Scanner privScan = null;
-        // pubScan is a scanner for the pubkey.rsa file
-        Scanner pubScan = null;
-
-        // code should be run as java RsaSign _ <filename>
-        // therefore signVerify should be s or v, is the file being signed or verified
-        // if user entered s
-        if(signVerify.equals("s"))
-        {
-            // try catch block in case the privkey.rsa file can not be found
-            try
-            {
-                privScan = new Scanner(new File("privkey.rsa"));
-            }
-            catch(FileNotFoundException err)
-            {
-                // if file can not be found, then print the stack trace
-                err.printStackTrace();
-            }
-            // if the file could not be found, then privScan is null
-            if(privScan == null)
-            {
-                // return because the rest of the program can not run without the privkey.rsa file
-                return;
-            }
-
-            // program only gets this far if the privkey.rsa file does exist
-            // the first line of the privkey.rsa file is the d value
-            LargeInteger d = new LargeInteger(privScan.nextLine());
-            // the second line of the privkey.rsa file is the n value
-            LargeInteger n = new LargeInteger(privScan.nextLine());
-
-            // sign the file
-            sign(d, n, filename);
-        }
-        // if user entered v
-        else if(signVerify.equals("v"))
-        {
-            // try catch block in case the pubkey.rsa file can not be file
-            try
-            {
-                pubScan = new Scanner(new File("pubkey.rsa"));
-            }
-            catch(FileNotFoundException err)
-            {
-                // if file can not be found, then print the stack trace
-                err.printStackTrace();
-            }
-            // if the file could not be found then pubScan is null
-            if(pubScan == null)
-            {
-                // return because the rest of the program can not run without the pubkey.rsa file
-                return;
-            }
-
-            // program only gets this far is the pubkey.rsa file does exist
-            // the first line of the pubkey.rsa file is the e value
-            LargeInteger e = new LargeInteger(pubScan.nextLine());
-            // the second line of the pubkey.rsa file is the n value
-            LargeInteger n = new LargeInteger(pubScan.nextLine());
-            
-            // verify the file signiture
-            verify(e, n, filename);
-        }
-        // else user did not enter s or v
-        else
-        {
-            System.out.println("Please retry and choose Sign Mode (s) or Verify Mode (v).");
-            return;
-        }
-        
-        // therefore filename should be the filename for the file that is going to be signed or verified
-        if(filename == null)
-        {
-            System.out.println("Please enter the name of the file that you wish to sign or verify.");
-            return;
-        }
-    }
-
-    // private method that sha-256 hashes the file that the user passed into the program
-    private LargeInteger getSha256(String filename)
-    {
-        // try catch block for a bunch of different exceptions
-        try
-        {
-            // this code came from he HashEx file that was provided for the class
-            Path path = Paths.get(filename);
-            byte[] data = Files.readAllBytes(path);
-
-            // create class instance to create SHA-256 hash
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-
-            // process the file
-            md.update(data);
-            // generate a has of the file
-            byte[] digest = md.digest();
-
-            // after digesting everything, use the new byte array to create a large int
-            LargeInteger hashed = new LargeInteger(digest);
-            // pad the hashed value value to ensure that it is read as a positive number
-            hashed.pad(1);
-            // return the hashed value
-            return hashed;
-        }
-        // if any of the exceptions occur
-        catch(Exception e)
-        {
-            // print the stack trace
-            e.printStackTrace();
-        }
-        // program only gets this far when there has been an exception, return null
-        return null;
-    }
-
-    // sign the file
-    public void sign(LargeInteger d, LargeInteger n, String filename)
-    {
-        // get the hash of the file the user provided
-        LargeInteger hash = getSha256(filename);
-
-        // signed = hash^d mod n
-        LargeInteger signed = hash.modularExp(d, n);
-     
-        // try catch block when trying to write to a new file, creating a .sig file
-        try
-        {
-            // printwriter that create filename + .sig file
-            // if user gives hello.txt, the printwriter makes a hello.txt.sig file
-            PrintWriter writer = new PrintWriter(new File(filename + ".sig"));
-            // write signed to filename + .sig
-            writer.println(signed.toStringWithoutSpace());
-            // close writer so no issues arise
-            writer.close();
-        }
-        catch(FileNotFoundException err)
-        {
-            // print stack trace if a filenotfoundexception occurs
-            err.printStackTrace();
-        }
-    }
-
-    // erify the signed file
-    public void verify(LargeInteger e, LargeInteger n, String filename)
-    {
-        // create a new scanner
-        Scanner scan = null;
-
-        // try catch block to make sure that the .sig version of the file the user entered can be found
-        try
-        {
-            scan = new Scanner(new File(filename + ".sig"));
-        }
-        // if the file can not be found
-        catch(FileNotFoundException err)
-        {
-            // print the stack trace
-            err.printStackTrace();
-        }
-        // if scan is null, then the file + .sig could not be found
-        if(scan == null)
-        {
-            // return
-            return;
-        }
-
-        // file only gets this far is the filename + .sig exists
-        // get the sha256 hash of the original filename
-        LargeInteger hash = getSha256(filename);
-
-        // signiture is the first line of the file + .sig file
-        LargeInteger signiture = new LargeInteger(scan.nextLine());
-
-        // close the scanner so that no issue arise
-        scan.close();
-
-        // verify = signiture^e mod n
-        LargeInteger verify = signiture.modularExp(e, n);
-
-        // of hash = verify
-        if(hash.toStringWithoutSpace().equals(verify.toStringWithoutSpace()))
-        {
-            // file was successfully verified
-            System.out.println(filename + ": verification successful.");
-        }
-        else
-        {
-            // else the file failed to be verified
-            System.out.println(filename + ": verificaiton failed.");
-        }
-    }
-
-    public static void main(String args[])
-    {
-        // index will iterate through every value in the args[]
-        int index;
-        for(index = 0; index < args.length; index++)
-        {
-            // if index is 0 and args[0] is null
-            if(index == 0 && args[index] == null)
-            {
-                // then the user did not enter a mode or a file to use
-                System.out.println("Please choose either Sign mode (s) or Verify mode (v), and enter the name of the file you wish to sign or verify.");
-                return;
-            }
-            // if index is 1 and args[1] is null
-            if(index == 1 && args[index] == null)
-            {
-                // then the user did not enter one of the parameters
-                System.out.println("Please enter the name of the file that you wish to sign or verify.");
-                return;
-            }
-        }
-        // program gets this far when the for loop ends
-        if(index != 2)
-        {
-            // if index does not equal 2, then the user either enterd too many or too few parameters
-            // either way, do not run the program, and tell the user to enter the mode and file name that they wish to run the program on
-            System.out.println("Please enter the name of the file that you wish to sign or verify.");
-            return;
-        }
-        // the program only makes it this far when the user has definitely entered enough parameters to try to run the program
-        new RsaSign(args[0], args[1]);
-    }
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class RsaSign
+{
+    // size of each of the buffers files are hashed through
+    private static final int HASH_BUFFER_SIZE = 1 << 20;
+
+    // each thread reuses its own pair of direct buffers for hashing
+    private static final ThreadLocal<ByteBuffer[]> HASH_BUFFERS = ThreadLocal.withInitial(() -> new ByteBuffer[] {
+        ByteBuffer.allocateDirect(HASH_BUFFER_SIZE),
+        ByteBuffer.allocateDirect(HASH_BUFFER_SIZE)
+    });
+
+    // keys read so far, so signing or verifying again in the same JVM, or in the daemon, does not read and set them up again
+    private static final KeyCache KEYS = new KeyCache();
+
+    public RsaSign(String signVerify, String filename)
+    {
+        this(signVerify, filename, null);
+    }
+
+    // report is where batch verify mode writes its report, ending in .csv for csv and anything else for json
+    // if report is null the json report is printed instead
+    public RsaSign(String signVerify, String filename, String report)
+    {
+        // code should be run as java RsaSign _ <filename>
+        // therefore signVerify should be s, v or b, is the file being signed or verified, or is a batch of files being signed
+        // if user entered s
+        if(signVerify.equals("s"))
+        {
+            // read the private key, return because the rest of the program can not run without the privkey.rsa file
+            RsaPrivateKey key = readPrivateKey();
+            if(key == null)
+            {
+                return;
+            }
+
+            // sign the file
+            sign(key, filename);
+        }
+        // if user entered b, filename is a list of files, a directory, or - for names on standard input
+        else if(signVerify.equals("b"))
+        {
+            // the key is read once and shared by every file in the batch
+            RsaPrivateKey key = readPrivateKey();
+            if(key == null)
+            {
+                return;
+            }
+
+            // sign all of the files
+            signBatch(key, filename);
+        }
+        // if user entered v
+        else if(signVerify.equals("v"))
+        {
+            // read the public key, return because the rest of the program can not run without the pubkey.rsa file
+            RsaPublicKey key = readPublicKey();
+            if(key == null)
+            {
+                return;
+            }
+
+            // verify the file signiture
+            verify(key, filename);
+        }
+        // if user entered bv, filename is a directory where every file is checked against its .sig
+        else if(signVerify.equals("bv"))
+        {
+            // the key is read once and shared by every file
+            RsaPublicKey key = readPublicKey();
+            if(key == null)
+            {
+                return;
+            }
+
+            // verify all of the files, writing the report to the report file or printing it
+            verifyBatch(key, filename, report);
+        }
+        // if user entered d, filename is the port to serve sign and verify requests on
+        else if(signVerify.equals("d"))
+        {
+            serve(filename);
+        }
+        // else user did not enter s, v, b, bv or d
+        else
+        {
+            System.out.println("Please retry and choose Sign Mode (s), Verify Mode (v), Batch Sign Mode (b), Batch Verify Mode (bv) or Daemon Mode (d).");
+            return;
+        }
+        
+        // therefore filename should be the filename for the file that is going to be signed or verified
+        if(filename == null)
+        {
+            System.out.println("Please enter the name of the file that you wish to sign or verify.");
+            return;
+        }
+    }
+
+    // read d and n, and p, q, dP, dQ and qInv if they are there, from privkey.rsa
+    // the key comes from the cache unless the file has changed, returns null if the file can not be read
+    private RsaPrivateKey readPrivateKey()
+    {
+        // try catch block in case the privkey.rsa file can not be found or does not hold a key
+        try
+        {
+            return KEYS.privateKey("privkey.rsa");
+        }
+        catch(IOException err)
+        {
+            // if file can not be found, then print the stack trace
+            err.printStackTrace();
+            return null;
+        }
+    }
+
+    // read e and n from pubkey.rsa
+    // the key comes from the cache unless the file has changed, returns null if the file can not be read
+    private RsaPublicKey readPublicKey()
+    {
+        // try catch block in case the pubkey.rsa file can not be found or does not hold a key
+        try
+        {
+            return KEYS.publicKey("pubkey.rsa");
+        }
+        catch(IOException err)
+        {
+            // if file can not be found, then print the stack trace
+            err.printStackTrace();
+            return null;
+        }
+    }
+
+    // read whichever keys are in the current directory and answer sign and verify requests on the loopback port until stopped
+    private void serve(String port)
+    {
+        int portNumber;
+        try
+        {
+            portNumber = Integer.parseInt(port);
+        }
+        catch(NumberFormatException err)
+        {
+            System.out.println("Please enter the port number for the daemon to listen on.");
+            return;
+        }
+
+        // either key is enough, the daemon only answers the requests it has a key for
+        // reading them here checks them and leaves them in the cache, which reads them again whenever the files change
+        RsaPrivateKey privateKey = new File("privkey.rsa").exists() ? readPrivateKey() : null;
+        RsaPublicKey publicKey = new File("pubkey.rsa").exists() ? readPublicKey() : null;
+        if(privateKey == null && publicKey == null)
+        {
+            System.out.println("The daemon needs privkey.rsa, pubkey.rsa or both in the current directory.");
+            return;
+        }
+
+        try
+        {
+            new RsaSignServer(this, KEYS, "privkey.rsa", "pubkey.rsa").serve(portNumber);
+        }
+        catch(IOException err)
+        {
+            // the port could not be listened on
+            err.printStackTrace();
+        }
+    }
+
+    // private method that sha-256 hashes the file that the user passed into the program
+    // prints what went wrong and returns null if the file can not be read, which is all the command line needs
+    LargeInteger getSha256(String filename)
+    {
+        try
+        {
+            return hashFile(filename);
+        }
+        // if the file could not be read
+        catch(IOException e)
+        {
+            // print the stack trace
+            e.printStackTrace();
+        }
+        // program only gets this far when there has been an exception, return null
+        return null;
+    }
+
+    // sha-256 hash of the file, throwing if it can not be read
+    // the daemon uses this from its worker threads, so a bad file name becomes an error reply instead of a stack trace in its log
+    LargeInteger hashFile(String filename) throws IOException
+    {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        // create class instance to create SHA-256 hash
+        MessageDigest md;
+        try
+        {
+            md = MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e)
+        {
+            // every Java platform has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        // stream the file through two buffers, so the next chunk is read while the last one is digested
+        // memory use stays the same no matter how big the file is
+        try(AsynchronousFileChannel channel = AsynchronousFileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            ByteBuffer[] buffers = HASH_BUFFERS.get();
+            int current = 0;
+            long position = 0;
+            buffers[current].clear();
+            Future<Integer> pending = channel.read(buffers[current], position);
+
+            // a read of -1 means the end of the file
+            int read;
+            while((read = pending.get()) >= 0)
+            {
+                position += read;
+                ByteBuffer ready = buffers[current];
+
+                // start reading the next chunk into the other buffer
+                current ^= 1;
+                buffers[current].clear();
+                pending = channel.read(buffers[current], position);
+
+                // process this chunk of the file while that read runs
+                ready.flip();
+                md.update(ready);
+            }
+        }
+        catch(ExecutionException e)
+        {
+            // a read that failed part way through
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            // keep the interrupt for whoever is waiting on this thread
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + filename);
+        }
+        // generate a has of the file
+        byte[] digest = md.digest();
+
+        // after digesting everything, use the new byte array to create a large int
+        LargeInteger hashed = new LargeInteger(digest);
+        // pad the hashed value value to ensure that it is read as a positive number
+        hashed.pad(1);
+        if(Metrics.ENABLED)
+        {
+            Metrics.HASH.record(System.nanoTime() - start);
+        }
+        // return the hashed value
+        return hashed;
+    }
+
+    // sign the file
+    public void sign(LargeInteger d, LargeInteger n, String filename)
+    {
+        sign(new RsaPrivateKey(d, n), filename);
+    }
+
+    // sign the file with a key that was already set up, so it can be reused across files
+    // returns true if the .sig file was written
+    public boolean sign(RsaPrivateKey key, String filename)
+    {
+        // get the hash of the file the user provided
+        LargeInteger hash = getSha256(filename);
+        // the file could not be read
+        if(hash == null)
+        {
+            return false;
+        }
+
+        // signed = hash^d mod n
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        LargeInteger signed = key.sign(hash);
+        if(Metrics.ENABLED)
+        {
+            Metrics.EXPONENTIATION.record(System.nanoTime() - start);
+        }
+     
+        // try catch block when trying to write to a new file, creating a .sig file
+        try
+        {
+            // if user gives hello.txt, this makes a hello.txt.sig file holding signed
+            LargeIntegerFile.write(filename + ".sig", signed);
+            return true;
+        }
+        catch(IOException err)
+        {
+            // print stack trace if the file can not be written
+            err.printStackTrace();
+        }
+        return false;
+    }
+
+    // sign every file named by source on a pool with a thread per core, printing a line per file and the total throughput
+    // source is a directory (every file under it), - (one name per line on standard input), or a file with one name per line
+    public void signBatch(RsaPrivateKey key, String source)
+    {
+        List<String> files;
+        try
+        {
+            files = batchFiles(source);
+        }
+        catch(IOException err)
+        {
+            // if the list of files can not be read, then print the stack trace
+            err.printStackTrace();
+            return;
+        }
+
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // each task hashes and signs one file, and gives back how long it took in nanoseconds, or -1 if it failed
+        List<Future<Long>> results = new ArrayList<>();
+        for(String file : files)
+        {
+            results.add(pool.submit(() ->
+            {
+                long fileStart = System.nanoTime();
+                return sign(key, file) ? System.nanoTime() - fileStart : -1L;
+            }));
+        }
+
+        // print the results in the order the files were given
+        int signedCount = 0;
+        long totalBytes = 0;
+        for(int i = 0; i < files.size(); i++)
+        {
+            long nanos = -1;
+            try
+            {
+                nanos = results.get(i).get();
+            }
+            catch(InterruptedException | ExecutionException err)
+            {
+                err.printStackTrace();
+            }
+
+            if(nanos < 0)
+            {
+                System.out.println(files.get(i) + ": signing failed.");
+            }
+            else
+            {
+                System.out.println(String.format("%s: signed (%.1f ms)", files.get(i), nanos / 1e6));
+                signedCount++;
+                totalBytes += new File(files.get(i)).length();
+            }
+        }
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("Signed %d of %d files (%.1f MB) in %.2f s on %d threads: %.1f files/s, %.1f MB/s",
+            signedCount, files.size(), totalBytes / 1e6, seconds, threads, signedCount / seconds, totalBytes / 1e6 / seconds));
+    }
+
+    // the names of the files in a batch
+    private List<String> batchFiles(String source) throws IOException
+    {
+        List<String> files = new ArrayList<>();
+        // - means the names come one per line on standard input
+        if(source.equals("-"))
+        {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while((line = reader.readLine()) != null)
+            {
+                if(!line.trim().isEmpty())
+                {
+                    files.add(line.trim());
+                }
+            }
+        }
+        // a directory means every file under it, except the signatures
+        else if(Files.isDirectory(Paths.get(source)))
+        {
+            try(Stream<Path> walk = Files.walk(Paths.get(source)))
+            {
+                walk.filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(name -> !name.endsWith(".sig"))
+                    .sorted()
+                    .forEach(files::add);
+            }
+        }
+        // otherwise it is a file listing the names one per line
+        else
+        {
+            for(String line : Files.readAllLines(Paths.get(source)))
+            {
+                if(!line.trim().isEmpty())
+                {
+                    files.add(line.trim());
+                }
+            }
+        }
+        return files;
+    }
+
+    // erify the signed file
+    public void verify(LargeInteger e, LargeInteger n, String filename)
+    {
+        verify(new RsaPublicKey(e, n), filename);
+    }
+
+    // verify the signed file with a key that was already set up, so it can be reused across files
+    public void verify(RsaPublicKey key, String filename)
+    {
+        VerifyResult result = verifyFile(key, filename);
+
+        // of hash = verify
+        if(result.status.equals(VerifyResult.VALID))
+        {
+            // file was successfully verified
+            System.out.println(filename + ": verification successful.");
+        }
+        else if(result.status.equals(VerifyResult.MISSING_SIGNATURE))
+        {
+            // the .sig file could not be found
+            System.out.println(filename + ".sig could not be found.");
+        }
+        else if(result.status.equals(VerifyResult.EMPTY_SIGNATURE))
+        {
+            // the .sig file holds no signature
+            System.out.println(filename + ".sig is empty or corrupt.");
+        }
+        else
+        {
+            // else the file failed to be verified
+            System.out.println(filename + ": verificaiton failed.");
+        }
+    }
+
+    // verify every file under directory against its .sig on a pool with a thread per core
+    // the report has the status, size, hash time and exponentiation time of each file
+    public void verifyBatch(RsaPublicKey key, String directory, String report)
+    {
+        List<String> files;
+        try
+        {
+            files = batchFiles(directory);
+        }
+        catch(IOException err)
+        {
+            // if the directory can not be read, then print the stack trace
+            err.printStackTrace();
+            return;
+        }
+
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // each task is one hash and one exponentiation
+        List<Future<VerifyResult>> futures = new ArrayList<>();
+        for(String file : files)
+        {
+            futures.add(pool.submit(() -> verifyFile(key, file)));
+        }
+
+        List<VerifyResult> results = new ArrayList<>();
+        int validCount = 0;
+        for(int i = 0; i < files.size(); i++)
+        {
+            VerifyResult result;
+            try
+            {
+                result = futures.get(i).get();
+            }
+            catch(InterruptedException | ExecutionException err)
+            {
+                err.printStackTrace();
+                result = new VerifyResult(files.get(i));
+            }
+            if(result.status.equals(VerifyResult.VALID))
+            {
+                validCount++;
+            }
+            results.add(result);
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // csv if the report file ends in .csv, json otherwise
+        String text = report != null && report.endsWith(".csv") ? VerifyResult.toCsv(results) : VerifyResult.toJson(results);
+        if(report == null)
+        {
+            System.out.print(text);
+            return;
+        }
+        try
+        {
+            PrintWriter writer = new PrintWriter(new File(report));
+            writer.print(text);
+            writer.close();
+        }
+        catch(FileNotFoundException err)
+        {
+            // print stack trace if the report can not be written
+            err.printStackTrace();
+            return;
+        }
+        System.out.println(String.format("Verified %d of %d files in %.2f s on %d threads: %.1f files/s, report written to %s",
+            validCount, files.size(), seconds, threads, files.size() / seconds, report));
+    }
+
+    // verify one file against its .sig, timing the hash and the exponentiation
+    private VerifyResult verifyFile(RsaPublicKey key, String filename)
+    {
+        VerifyResult result = new VerifyResult(filename);
+        result.size = new File(filename).length();
+
+        // signiture is the first number in the file + .sig file
+        LargeInteger[] values;
+        try
+        {
+            values = LargeIntegerFile.read(filename + ".sig");
+        }
+        catch(NoSuchFileException err)
+        {
+            result.status = VerifyResult.MISSING_SIGNATURE;
+            return result;
+        }
+        catch(IOException err)
+        {
+            // the .sig file is there but could not be read
+            return result;
+        }
+        // a .sig file with no numbers in it is empty or was cut short
+        if(values.length == 0)
+        {
+            result.status = VerifyResult.EMPTY_SIGNATURE;
+            return result;
+        }
+        LargeInteger signiture = values[0];
+
+        // get the sha256 hash of the original filename
+        long start = System.nanoTime();
+        LargeInteger hash = getSha256(filename);
+        result.hashNanos = System.nanoTime() - start;
+        if(hash == null)
+        {
+            return result;
+        }
+
+        // verify = signiture^e mod n
+        start = System.nanoTime();
+        LargeInteger verify = key.verify(signiture);
+        result.exponentiationNanos = System.nanoTime() - start;
+        if(Metrics.ENABLED)
+        {
+            Metrics.EXPONENTIATION.record(result.exponentiationNanos);
+        }
+
+        // compare the values, not the bit strings, which can differ in how many leading 0 bytes they have
+        result.status = hash.equals(verify) ? VerifyResult.VALID : VerifyResult.INVALID;
+        return result;
+    }
+
+    // outcome of verifying one file, a line in the batch verify report
+    private static class VerifyResult
+    {
+        static final String VALID = "valid";
+        static final String INVALID = "invalid";
+        static final String MISSING_SIGNATURE = "missing-signature";
+        static final String EMPTY_SIGNATURE = "empty-signature";
+        static final String ERROR = "error";
+
+        final String file;
+        String status = ERROR;
+        long size;
+        long hashNanos;
+        long exponentiationNanos;
+
+        VerifyResult(String file)
+        {
+            this.file = file;
+        }
+
+        // the results as a json array of objects
+        static String toJson(List<VerifyResult> results)
+        {
+            StringBuilder json = new StringBuilder("[\n");
+            for(int i = 0; i < results.size(); i++)
+            {
+                VerifyResult r = results.get(i);
+                json.append(String.format("  {\"file\": \"%s\", \"status\": \"%s\", \"size\": %d, \"hashMs\": %.3f, \"exponentiationMs\": %.3f}",
+                    escapeJson(r.file), r.status, r.size, r.hashNanos / 1e6, r.exponentiationNanos / 1e6));
+                json.append(i < results.size() - 1 ? ",\n" : "\n");
+            }
+            return json.append("]\n").toString();
+        }
+
+        // the results as csv with a header line
+        static String toCsv(List<VerifyResult> results)
+        {
+            StringBuilder csv = new StringBuilder("file,status,size,hash_ms,exponentiation_ms\n");
+            for(VerifyResult r : results)
+            {
+                csv.append(String.format("%s,%s,%d,%.3f,%.3f\n", escapeCsv(r.file), r.status, r.size, r.hashNanos / 1e6, r.exponentiationNanos / 1e6));
+            }
+            return csv.toString();
+        }
+
+        private static String escapeJson(String text)
+        {
+            StringBuilder escaped = new StringBuilder();
+            for(char c : text.toCharArray())
+            {
+                if(c == '"' || c == '\\')
+                {
+                    escaped.append('\\').append(c);
+                }
+                else if(c < 0x20)
+                {
+                    escaped.append(String.format("\\u%04x", (int) c));
+                }
+                else
+                {
+                    escaped.append(c);
+                }
+            }
+            return escaped.toString();
+        }
+
+        private static String escapeCsv(String text)
+        {
+            if(text.contains(",") || text.contains("\"") || text.contains("\n"))
+            {
+                return "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+            return text;
+        }
+    }
+
+    public static void main(String args[])
+    {
+        // index will iterate through every value in the args[]
+        int index;
+        for(index = 0; index < args.length; index++)
+        {
+            // if index is 0 and args[0] is null
+            if(index == 0 && args[index] == null)
+            {
+                // then the user did not enter a mode or a file to use
+                System.out.println("Please choose either Sign mode (s), Verify mode (v), Batch Sign mode (b), Batch Verify mode (bv) or Daemon mode (d), and enter the name of the file you wish to sign or verify, or for a batch sign a list of files, a directory, or - to read names from standard input, or for a batch verify a directory and optionally a report file, or for the daemon the port to listen on.");
+                return;
+            }
+            // if index is 1 and args[1] is null
+            if(index == 1 && args[index] == null)
+            {
+                // then the user did not enter one of the parameters
+                System.out.println("Please enter the name of the file that you wish to sign or verify.");
+                return;
+            }
+        }
+        // batch verify mode can also take the name of the report file
+        if(index == 3 && args[0].equals("bv"))
+        {
+            new RsaSign(args[0], args[1], args[2]);
+            printMetrics();
+            return;
+        }
+        // program gets this far when the for loop ends
+        if(index != 2)
+        {
+            // if index does not equal 2, then the user either enterd too many or too few parameters
+            // either way, do not run the program, and tell the user to enter the mode and file name that they wish to run the program on
+            System.out.println("Please enter the name of the file that you wish to sign or verify.");
+            return;
+        }
+        // the program only makes it this far when the user has definitely entered enough parameters to try to run the program
+        new RsaSign(args[0], args[1]);
+        printMetrics();
+    }
+
+    // with -DLargeInteger.metrics=true, print what was measured before exiting, in case the run ended before the periodic dump
+    private static void printMetrics()
+    {
+        if(Metrics.ENABLED)
+        {
+            System.err.print(Metrics.report());
+        }
+    }
 }
\ No newline at end of file
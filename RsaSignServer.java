@@ -0,0 +1,307 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Signing daemon, started with java RsaSign d <port>.
+ * The keys are kept in a KeyCache and the arithmetic stays loaded and JIT compiled, so a
+ * request skips the JVM start up, class loading, warm up and key parsing that every run
+ * of RsaSign pays for. A key file that is replaced while the daemon runs is read again on
+ * the next request that needs it. It only listens on the loopback address.
+ * Requests are one line each, and each gets one line back, starting with ok or error:
+ *   sign <file>                           signs the file and writes file.sig, replies with the signature
+ *   sign-digest <hex>                     signs a SHA-256 digest, replies with the signature
+ *   verify <file>                         checks the file against file.sig, replies valid or invalid
+ *   verify-digest <hex> <signature hex>   checks a digest against a signature, replies valid or invalid
+ *   quit                                  closes the connection
+ * Numbers are sent as unsigned, big-endian hex, and must be less than n.
+ */
+public class RsaSignServer
+{
+    // hashes files for the sign and verify requests
+    private final RsaSign signer;
+
+    // where the keys come from, either file can be missing and then the requests that need it reply with an error
+    private final KeyCache keys;
+    private final String privateKeyFile;
+    private final String publicKeyFile;
+
+    // a thread per core does the hashing and exponentiation, so any number of connections can not use more cpu than there is
+    private final ExecutorService workers;
+
+    // each connection gets its own thread, which only waits on the socket and the workers
+    private final ExecutorService connections;
+
+    public RsaSignServer(RsaSign signer, KeyCache keys, String privateKeyFile, String publicKeyFile)
+    {
+        this.signer = signer;
+        this.keys = keys;
+        this.privateKeyFile = privateKeyFile;
+        this.publicKeyFile = publicKeyFile;
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.connections = connectionExecutor();
+    }
+
+    // listen on the loopback address until the process is stopped, port 0 picks any free port
+    public void serve(int port) throws IOException
+    {
+        try(ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress()))
+        {
+            System.out.println("Listening on " + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort()
+                + (privateKey() == null ? "" : ", signing") + (publicKey() == null ? "" : ", verifying"));
+            while(true)
+            {
+                Socket socket = server.accept();
+                connections.execute(() -> handle(socket));
+            }
+        }
+        finally
+        {
+            connections.shutdown();
+            workers.shutdown();
+        }
+    }
+
+    // answer the requests on one connection, in order, until the client says quit or hangs up
+    private void handle(Socket socket)
+    {
+        try(Socket client = socket;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+            Writer writer = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII))
+        {
+            // small replies should go out straight away instead of waiting for more to send
+            client.setTcpNoDelay(true);
+            String line;
+            while((line = reader.readLine()) != null)
+            {
+                String request = line.trim();
+                if(request.isEmpty())
+                {
+                    continue;
+                }
+                if(request.equals("quit"))
+                {
+                    break;
+                }
+
+                // the work is handed to the workers, and this thread just waits for the reply
+                String reply;
+                try
+                {
+                    reply = workers.submit(() -> execute(request)).get();
+                }
+                catch(ExecutionException err)
+                {
+                    reply = "error " + describe(err.getCause() == null ? err : err.getCause());
+                }
+                writer.write(reply + "\n");
+                writer.flush();
+            }
+        }
+        catch(IOException err)
+        {
+            // the client went away, there is no one left to tell
+        }
+        catch(InterruptedException err)
+        {
+            // the daemon is shutting down, keep the interrupt so the executor sees it
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // carry out one request and make its reply, without the line ending
+    private String execute(String request) throws IOException
+    {
+        String[] words = request.split("\\s+");
+        String command = words[0];
+
+        if(command.equals("sign") && words.length == 2)
+        {
+            RsaPrivateKey privateKey = privateKey();
+            if(privateKey == null)
+            {
+                return "error no private key loaded";
+            }
+            LargeInteger hash;
+            try
+            {
+                hash = signer.hashFile(words[1]);
+            }
+            catch(IOException err)
+            {
+                // any client can name a file that is not there, so this is only a reply and nothing goes in the daemon's log
+                return "error could not read " + words[1];
+            }
+            LargeInteger signed = sign(privateKey, hash);
+            // the same .sig file as java RsaSign s would write
+            LargeIntegerFile.write(words[1] + ".sig", signed);
+            return "ok " + signed.toHexString();
+        }
+        else if(command.equals("sign-digest") && words.length == 2)
+        {
+            RsaPrivateKey privateKey = privateKey();
+            if(privateKey == null)
+            {
+                return "error no private key loaded";
+            }
+            LargeInteger digest = parseHex(words[1], privateKey.getN());
+            if(digest == null)
+            {
+                return "error the digest must be unsigned hex less than n";
+            }
+            return "ok " + sign(privateKey, digest).toHexString();
+        }
+        else if(command.equals("verify") && words.length == 2)
+        {
+            RsaPublicKey publicKey = publicKey();
+            if(publicKey == null)
+            {
+                return "error no public key loaded";
+            }
+            LargeInteger[] values;
+            try
+            {
+                values = LargeIntegerFile.read(words[1] + ".sig");
+            }
+            catch(NoSuchFileException err)
+            {
+                return "error " + words[1] + ".sig could not be found";
+            }
+            if(values.length == 0)
+            {
+                return "error " + words[1] + ".sig is empty or corrupt";
+            }
+            LargeInteger signature = values[0];
+            LargeInteger hash;
+            try
+            {
+                hash = signer.hashFile(words[1]);
+            }
+            catch(IOException err)
+            {
+                return "error could not read " + words[1];
+            }
+            return verify(publicKey, hash, signature);
+        }
+        else if(command.equals("verify-digest") && words.length == 3)
+        {
+            RsaPublicKey publicKey = publicKey();
+            if(publicKey == null)
+            {
+                return "error no public key loaded";
+            }
+            LargeInteger digest = parseHex(words[1], publicKey.getN());
+            if(digest == null)
+            {
+                return "error the digest must be unsigned hex less than n";
+            }
+            LargeInteger signature = parseHex(words[2], publicKey.getN());
+            if(signature == null)
+            {
+                return "error the signature must be unsigned hex less than n";
+            }
+            return verify(publicKey, digest, signature);
+        }
+        return "error unknown request, expected sign <file>, sign-digest <hex>, verify <file>, verify-digest <hex> <signature hex> or quit";
+    }
+
+    // a number sent as unsigned, big-endian hex that must be less than n, or null if it is not one
+    // fromHexString takes a sign as well, which the protocol does not allow, since -5 would otherwise be used as n - 5
+    private static LargeInteger parseHex(String hex, LargeInteger n)
+    {
+        if(hex.startsWith("-") || hex.startsWith("+"))
+        {
+            return null;
+        }
+        try
+        {
+            LargeInteger value = LargeInteger.fromHexString(hex);
+            return value.lessThan(n) ? value : null;
+        }
+        catch(NumberFormatException err)
+        {
+            return null;
+        }
+    }
+
+    // what went wrong, for an error reply, the message if there is one and the type of exception if not
+    private static String describe(Throwable err)
+    {
+        String message = err.getMessage();
+        return message == null || message.isEmpty() ? err.getClass().getSimpleName() : message;
+    }
+
+    // the private key, which the cache reads again if its file has changed, or null if there is none
+    private RsaPrivateKey privateKey()
+    {
+        try
+        {
+            return keys.privateKey(privateKeyFile);
+        }
+        catch(IOException err)
+        {
+            return null;
+        }
+    }
+
+    // the public key, which the cache reads again if its file has changed, or null if there is none
+    private RsaPublicKey publicKey()
+    {
+        try
+        {
+            return keys.publicKey(publicKeyFile);
+        }
+        catch(IOException err)
+        {
+            return null;
+        }
+    }
+
+    // hash^d mod n
+    private LargeInteger sign(RsaPrivateKey privateKey, LargeInteger hash)
+    {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        LargeInteger signed = privateKey.sign(hash);
+        if(Metrics.ENABLED)
+        {
+            Metrics.EXPONENTIATION.record(System.nanoTime() - start);
+        }
+        return signed;
+    }
+
+    // check that signature^e mod n is the hash
+    private String verify(RsaPublicKey publicKey, LargeInteger hash, LargeInteger signature)
+    {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        LargeInteger recovered = publicKey.verify(signature);
+        if(Metrics.ENABLED)
+        {
+            Metrics.EXPONENTIATION.record(System.nanoTime() - start);
+        }
+        return hash.equals(recovered) ? "ok valid" : "ok invalid";
+    }
+
+    // a virtual thread per connection on Java 21 and later, looked up by reflection so this still builds for Java 8
+    // older JVMs get a platform thread per connection instead, reused between connections
+    private static ExecutorService connectionExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException err)
+        {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+import java.util.Random;
+
+import benchmarks.Workload;
+import benchmarks.WorkloadFactory;
+
+/**
+ * The operations the benchmarks run, set up on LargeIntegers of the requested size.
+ * The operands come from a fixed seed, so every run measures the same numbers.
+ */
+public class LargeIntegerWorkloads implements WorkloadFactory
+{
+    // the public exponent used for every key
+    private static final long E = 65537;
+
+    // source of the operands
+    private final Random random = new Random(1501);
+
+    public Workload create(String operation, int bits)
+    {
+        switch(operation)
+        {
+            case "add":
+            {
+                LargeInteger a = random(bits);
+                LargeInteger b = random(bits);
+                return () -> a.add(b);
+            }
+            case "multiply":
+            {
+                LargeInteger a = random(bits);
+                LargeInteger b = random(bits);
+                return () -> a.multiply(b);
+            }
+            case "square":
+            {
+                LargeInteger a = random(bits);
+                return () -> a.square();
+            }
+            // a number twice as long as the divisor, like the product reduced in modular arithmetic
+            case "division":
+            {
+                LargeInteger a = random(2 * bits);
+                LargeInteger b = random(bits);
+                return () -> a.division(b);
+            }
+            case "modulus":
+            {
+                LargeInteger a = random(2 * bits);
+                LargeInteger b = random(bits);
+                return () -> a.modulus(b);
+            }
+            case "xgcd":
+            {
+                LargeInteger a = random(bits);
+                LargeInteger b = random(bits);
+                return () -> a.XGCD(b);
+            }
+            // an odd modulus, as in RSA, so this runs the Montgomery path
+            case "modularExp":
+            {
+                LargeInteger n = random(bits);
+                // an even number plus 1 still has the same number of bits
+                LargeInteger modulus = n.getLSB() ? n : n.add(LargeInteger.valueOf(1));
+                LargeInteger base = random(bits - 8);
+                LargeInteger exponent = random(bits);
+                return () -> base.modularExp(exponent, modulus);
+            }
+            // a^x * b^y mod n in one pass, against the same odd modulus
+            case "multiModExp":
+            {
+                LargeInteger n = random(bits);
+                LargeInteger modulus = n.getLSB() ? n : n.add(LargeInteger.valueOf(1));
+                LargeInteger[] bases = {random(bits - 8), random(bits - 8)};
+                LargeInteger[] exponents = {random(bits), random(bits)};
+                return () -> LargeInteger.multiModExp(bases, exponents, modulus);
+            }
+            case "probablePrime":
+                return () -> PrimeGenerator.probablePrime(bits, random);
+            // the next prime from one stream, so the setup is shared by every call like it is when many primes are needed
+            case "primeStream":
+            {
+                PrimeStream primes = new PrimeStream(bits, random);
+                return () -> primes.next();
+            }
+            // keys are made in memory, so the benchmark does not write pubkey.rsa and privkey.rsa
+            case "keyGen":
+            {
+                LargeInteger e = LargeInteger.valueOf(E);
+                return () -> RsaKeyGen.generateKey(bits, e, random);
+            }
+            // sign and verify a SHA-256 sized hash, the part of RsaSign that depends on the key size
+            case "sign":
+            {
+                RsaPrivateKey key = RsaKeyGen.generateKey(bits, LargeInteger.valueOf(E), random);
+                LargeInteger hash = random(256);
+                return () -> key.sign(hash);
+            }
+            case "verify":
+            {
+                RsaPrivateKey key = RsaKeyGen.generateKey(bits, LargeInteger.valueOf(E), random);
+                RsaPublicKey publicKey = new RsaPublicKey(LargeInteger.valueOf(E), key.getN());
+                LargeInteger signature = key.sign(random(256));
+                return () -> publicKey.verify(signature);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    // random positive number with exactly the given number of bits, which must be a multiple of 8
+    private LargeInteger random(int bits)
+    {
+        // one extra leading byte of 0 keeps it positive
+        byte[] b = new byte[bits / 8 + 1];
+        random.nextBytes(b);
+        b[0] = 0;
+        b[1] |= (byte) 0x80;
+        return new LargeInteger(b);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. It takes the usual JMH command line options,
+ * and always adds the gc profiler so every result comes with its allocation
+ * rate and bytes per operation (gc.alloc.rate.norm).
+ *
+ * For example, to keep a baseline to compare an upgrade against:
+ *   java -jar benchmarks/target/benchmarks.jar -rf json -rff baseline.json
+ * or to run one benchmark at one size:
+ *   java -jar benchmarks/target/benchmarks.jar LargeIntegerBenchmark.modularExp -p bits=2048
+ */
+public class BenchmarkMain
+{
+    public static void main(String[] args) throws RunnerException, IOException
+    {
+        CommandLineOptions commandLine;
+        try
+        {
+            commandLine = new CommandLineOptions(args);
+        }
+        catch(CommandLineOptionException err)
+        {
+            System.err.println("Error parsing command line: " + err.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        // -h and -l work the same as with the plain JMH runner
+        if(commandLine.shouldHelp())
+        {
+            commandLine.showHelp();
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .build();
+        Runner runner = new Runner(options);
+        if(commandLine.shouldList())
+        {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
\ No newline at end of file
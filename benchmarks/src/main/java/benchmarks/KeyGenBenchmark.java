@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prime generation and RsaKeyGen key generation, in milliseconds per operation.
+ * How long a prime takes to find depends on how many candidates get tested, so
+ * each call is timed on its own over many calls rather than in a tight loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class KeyGenBenchmark
+{
+    @Param({"512", "1024", "2048", "4096"})
+    public int bits;
+
+    private Workload probablePrime;
+    private Workload primeStream;
+    private Workload keyGen;
+
+    @Setup
+    public void setup()
+    {
+        WorkloadFactory factory = WorkloadFactory.load();
+        probablePrime = factory.create("probablePrime", bits);
+        primeStream = factory.create("primeStream", bits);
+        keyGen = factory.create("keyGen", bits);
+    }
+
+    @Benchmark
+    public Object probablePrime()
+    {
+        return probablePrime.run();
+    }
+
+    @Benchmark
+    public Object primeStream()
+    {
+        return primeStream.run();
+    }
+
+    @Benchmark
+    public Object keyGen()
+    {
+        return keyGen.run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LargeInteger arithmetic on operands of each size, in microseconds per operation.
+ * Division and modulus divide a number of twice the size by one of the size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeIntegerBenchmark
+{
+    @Param({"512", "1024", "2048", "4096"})
+    public int bits;
+
+    private Workload add;
+    private Workload multiply;
+    private Workload square;
+    private Workload division;
+    private Workload modulus;
+    private Workload xgcd;
+    private Workload modularExp;
+    private Workload multiModExp;
+
+    @Setup
+    public void setup()
+    {
+        WorkloadFactory factory = WorkloadFactory.load();
+        add = factory.create("add", bits);
+        multiply = factory.create("multiply", bits);
+        square = factory.create("square", bits);
+        division = factory.create("division", bits);
+        modulus = factory.create("modulus", bits);
+        xgcd = factory.create("xgcd", bits);
+        modularExp = factory.create("modularExp", bits);
+        multiModExp = factory.create("multiModExp", bits);
+    }
+
+    @Benchmark
+    public Object add()
+    {
+        return add.run();
+    }
+
+    @Benchmark
+    public Object multiply()
+    {
+        return multiply.run();
+    }
+
+    @Benchmark
+    public Object square()
+    {
+        return square.run();
+    }
+
+    @Benchmark
+    public Object division()
+    {
+        return division.run();
+    }
+
+    @Benchmark
+    public Object modulus()
+    {
+        return modulus.run();
+    }
+
+    @Benchmark
+    public Object xgcd()
+    {
+        return xgcd.run();
+    }
+
+    @Benchmark
+    public Object modularExp()
+    {
+        return modularExp.run();
+    }
+
+    @Benchmark
+    public Object multiModExp()
+    {
+        return multiModExp.run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RsaSign's signing (with the chinese remainder theorem) and verifying of a
+ * SHA-256 hash for a key of each size, in microseconds per operation.
+ * Hashing the file is left out, it does not depend on the key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RsaBenchmark
+{
+    @Param({"512", "1024", "2048", "4096"})
+    public int bits;
+
+    private Workload sign;
+    private Workload verify;
+
+    @Setup
+    public void setup()
+    {
+        WorkloadFactory factory = WorkloadFactory.load();
+        sign = factory.create("sign", bits);
+        verify = factory.create("verify", bits);
+    }
+
+    @Benchmark
+    public Object sign()
+    {
+        return sign.run();
+    }
+
+    @Benchmark
+    public Object verify()
+    {
+        return verify.run();
+    }
+}
\ No newline at end of file
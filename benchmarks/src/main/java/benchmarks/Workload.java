@@ -0,0 +1,16 @@
+package benchmarks;
+
+/**
+ * One operation being benchmarked, with its operands already set up.
+ * LargeInteger and the RSA classes are in the default package, which code in
+ * a named package (and so every JMH benchmark) cannot refer to, so the
+ * benchmarks only see them through this interface.
+ */
+public interface Workload
+{
+    /**
+     * Run the operation once
+     * @return the result, handed back to JMH so the work is not optimized away
+     */
+    Object run();
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package benchmarks;
+
+/**
+ * Builds a Workload for an operation at a given size.
+ * The implementation, LargeIntegerWorkloads, lives in the default package next
+ * to LargeInteger and is loaded by name.
+ */
+public interface WorkloadFactory
+{
+    /**
+     * Set up the operands for an operation
+     * @param operation name of the operation, such as multiply or sign
+     * @param bits size of the operands, or of the key for the RSA operations
+     * @return the operation, ready to run over and over
+     */
+    Workload create(String operation, int bits);
+
+    /**
+     * Load the factory from the default package
+     * @return a new LargeIntegerWorkloads
+     */
+    static WorkloadFactory load()
+    {
+        try
+        {
+            return (WorkloadFactory) Class.forName("LargeIntegerWorkloads").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException err)
+        {
+            throw new IllegalStateException("LargeIntegerWorkloads could not be loaded.", err);
+        }
+    }
+}
\ No newline at end of file